@@ -0,0 +1,57 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BotDetectorBenchmark {
+    private static final int STREAM_SIZE = 1 << 22;
+
+    @Param({"10000", "4000000"})
+    public int distinctIps;
+
+    private long[] hashes;
+    private int[] codes;
+    private BotDetector detector;
+    private int index;
+    private long second;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(11);
+        hashes = new long[STREAM_SIZE];
+        codes = new int[STREAM_SIZE];
+        for (int i = 0; i < STREAM_SIZE; i++) {
+            hashes[i] = Hashing.hash((long) random.nextInt(distinctIps));
+            codes[i] = random.nextInt(10) == 0 ? 404 : 200;
+        }
+        detector = new BotDetector(BotDetectorSettings.defaults());
+        second = 1_700_000_000L;
+    }
+
+    @Benchmark
+    public boolean check() {
+        index = (index + 1) & (STREAM_SIZE - 1);
+        if ((index & 1023) == 0) {
+            second++;
+        }
+        return detector.check(hashes[index], second, codes[index]);
+    }
+}
@@ -0,0 +1,86 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentStatisticsBenchmark {
+    private static final int CORPUS_SIZE = 1 << 16;
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    public int producers;
+
+    @Param({"striped", "locked"})
+    public String mode;
+
+    private LogEntry[] entries;
+    private ExecutorService pool;
+    private List<Callable<Void>> tasks;
+    private ConcurrentStatistics statistics;
+
+    @Setup
+    public void setUp() {
+        List<String> lines = LogCorpus.lines(CORPUS_SIZE, 3);
+        entries = new LogEntry[CORPUS_SIZE];
+        for (int i = 0; i < CORPUS_SIZE; i++) {
+            entries[i] = new LogEntry(lines.get(i));
+        }
+
+        pool = Executors.newFixedThreadPool(producers);
+        tasks = new ArrayList<>(producers);
+        for (int p = 0; p < producers; p++) {
+            int first = p;
+            tasks.add(() -> {
+                for (int i = first; i < CORPUS_SIZE; i += producers) {
+                    statistics.addEntry(entries[i]);
+                }
+                return null;
+            });
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void newStatistics() {
+        statistics = mode.equals("locked") ? new ConcurrentStatistics(Statistics::new, 1) : new ConcurrentStatistics(Statistics::new);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CORPUS_SIZE)
+    public Statistics addEntry() throws InterruptedException, ExecutionException {
+        for (Future<Void> future : pool.invokeAll(tasks)) {
+            future.get();
+        }
+        return statistics.snapshot();
+    }
+}
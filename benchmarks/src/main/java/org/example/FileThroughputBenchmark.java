@@ -0,0 +1,79 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(FileThroughputBenchmark.LINES)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileThroughputBenchmark {
+    static final int LINES = 200_000;
+
+    private File plain;
+    private File gzip;
+
+    @Setup
+    public void setUp() throws IOException {
+        plain = LogCorpus.writeFile(LINES, 5, false).toFile();
+        gzip = LogCorpus.writeFile(LINES, 5, true).toFile();
+    }
+
+    @Benchmark
+    public Statistics text() throws IOException {
+        Statistics statistics = new Statistics();
+        try (BufferedReader reader = Files.newBufferedReader(plain.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    statistics.addEntry(new LogEntry(line));
+                }
+            }
+        }
+        return statistics;
+    }
+
+    @Benchmark
+    public Statistics mapped() throws IOException {
+        Statistics statistics = new Statistics();
+        MappedLogReader.read(plain, statistics);
+        return statistics;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dalp.metrics=false")
+    public Statistics mappedWithoutMetrics() throws IOException {
+        return mapped();
+    }
+
+    @Benchmark
+    public Statistics parallel() throws IOException {
+        return ParallelLogReader.read(plain);
+    }
+
+    @Benchmark
+    public Statistics compressed() throws IOException {
+        Statistics statistics = new Statistics();
+        CompressedLogReader.read(gzip, statistics);
+        return statistics;
+    }
+}
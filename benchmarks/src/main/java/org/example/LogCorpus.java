@@ -0,0 +1,134 @@
+package org.example;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+final class LogCorpus {
+    private static final String[] MONTHS = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+    private static final String[] METHODS = {"GET", "GET", "GET", "GET", "POST", "POST", "HEAD", "PUT", "DELETE", "OPTIONS"};
+    private static final int[] CODES = {200, 200, 200, 200, 200, 200, 301, 302, 304, 404, 404, 403, 500, 502};
+    private static final String[] HUMAN_AGENTS = {
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/%d.0.0.0 Safari/537.36",
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/%d.0.0.0 Safari/537.36 Edg/%d.0.0.0",
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64; rv:%d.0) Gecko/20100101 Firefox/%d.0",
+            "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.%d Safari/605.1.15",
+            "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/%d.0.0.0 Safari/537.36 OPR/%d.0.0.0",
+            "Mozilla/5.0 (Linux; Android 14; Pixel 8) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/%d.0.0.0 Mobile Safari/537.36",
+            "Mozilla/5.0 (iPhone; CPU iPhone OS 17_%d like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.0 Mobile/15E148 Safari/604.1"
+    };
+    private static final String[] BOT_AGENTS = {
+            "Mozilla/5.0 (compatible; Googlebot/2.%d; +http://www.google.com/bot.html)",
+            "Mozilla/5.0 (compatible; bingbot/2.%d; +http://www.bing.com/bingbot.htm)",
+            "Mozilla/5.0 (compatible; YandexBot/3.%d; +http://yandex.com/bots)",
+            "Mozilla/5.0 (compatible; AhrefsBot/7.%d; +http://ahrefs.com/robot/)",
+            "Mozilla/5.0 (compatible; Yahoo! Slurp/%d; http://help.yahoo.com/help/us/ysearch/slurp)",
+            "Sogou web spider/4.%d(+http://www.sogou.com/docs/help/webmasters.htm#07)"
+    };
+    private static final String[] REFERERS = {
+            "-", "-", "-",
+            "https://www.google.com/search?q=%s",
+            "https://yandex.ru/search/?text=%s&lr=213",
+            "https://www.example.com/catalog/%s",
+            "http://nova-news.ru:8080/article/%s",
+            "https://m.facebook.com/story.php?story_fbid=%s",
+            "android-app://com.google.android.gm/%s"
+    };
+    private static final String[] SECTIONS = {"catalog", "product", "search", "api/v1/items", "static/js", "images", "blog", "account"};
+
+    private LogCorpus() {
+    }
+
+    static List<String> lines(int count, long seed) {
+        Random random = new Random(seed);
+        List<String> lines = new ArrayList<>(count);
+        long second = 1663711200L;
+        StringBuilder line = new StringBuilder(1024);
+        for (int i = 0; i < count; i++) {
+            second += random.nextInt(3);
+            line.setLength(0);
+            appendLine(line, random, second);
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    static Path writeFile(int count, long seed, boolean gzip) throws IOException {
+        Path file = Files.createTempFile("access-", gzip ? ".log.gz" : ".log");
+        file.toFile().deleteOnExit();
+        try (OutputStream out = gzip ? new GZIPOutputStream(Files.newOutputStream(file), 1 << 16) : Files.newOutputStream(file);
+             Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16)) {
+            for (String line : lines(count, seed)) {
+                writer.write(line);
+                writer.write('\n');
+            }
+        }
+        return file;
+    }
+
+    private static void appendLine(StringBuilder line, Random random, long second) {
+        boolean bot = random.nextInt(100) < 25;
+        LocalDateTime time = LocalDateTime.ofEpochSecond(second, 0, ZoneOffset.UTC);
+
+        if (random.nextInt(100) < 15) {
+            line.append("2001:db8:").append(Integer.toHexString(random.nextInt(0x10000))).append("::")
+                    .append(Integer.toHexString(random.nextInt(0x10000)));
+        } else {
+            line.append(random.nextInt(224) + 1).append('.').append(random.nextInt(256)).append('.')
+                    .append(random.nextInt(16)).append('.').append(random.nextInt(256));
+        }
+
+        line.append(" - - [").append(two(time.getDayOfMonth())).append('/').append(MONTHS[time.getMonthValue() - 1])
+                .append('/').append(time.getYear()).append(':').append(two(time.getHour())).append(':')
+                .append(two(time.getMinute())).append(':').append(two(time.getSecond())).append(" +0300] \"")
+                .append(METHODS[random.nextInt(METHODS.length)]).append(' ');
+
+        appendPath(line, random);
+        line.append(" HTTP/1.1\" ").append(CODES[random.nextInt(CODES.length)]).append(' ')
+                .append(random.nextInt(20) == 0 ? 0 : random.nextInt(250_000)).append(" \"");
+
+        String referer = REFERERS[random.nextInt(REFERERS.length)];
+        line.append(referer.contains("%s") ? String.format(referer, token(random, 4 + random.nextInt(12))) : referer).append("\" \"");
+
+        String agent = bot ? BOT_AGENTS[random.nextInt(BOT_AGENTS.length)] : HUMAN_AGENTS[random.nextInt(HUMAN_AGENTS.length)];
+        int version = 100 + random.nextInt(30);
+        line.append(String.format(agent, version, version)).append('"');
+    }
+
+    private static void appendPath(StringBuilder line, Random random) {
+        line.append('/').append(SECTIONS[random.nextInt(SECTIONS.length)]).append('/').append(random.nextInt(5000));
+        int roll = random.nextInt(100);
+        if (roll < 40) {
+            return;
+        }
+        int parameters = roll < 90 ? 1 + random.nextInt(3) : 8 + random.nextInt(12);
+        for (int p = 0; p < parameters; p++) {
+            line.append(p == 0 ? '?' : '&').append(token(random, 2 + random.nextInt(6))).append('=')
+                    .append(token(random, 4 + random.nextInt(20)));
+        }
+    }
+
+    private static String token(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            int c = random.nextInt(36);
+            chars[i] = (char) (c < 10 ? '0' + c : 'a' + c - 10);
+        }
+        return new String(chars);
+    }
+
+    private static String two(int value) {
+        return value < 10 ? "0" + value : Integer.toString(value);
+    }
+}
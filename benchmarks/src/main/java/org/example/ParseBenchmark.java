@@ -0,0 +1,116 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+    private static final int CORPUS_SIZE = 4096;
+    private static final LogFormat NGINX_COMBINED = LogFormat.nginx(
+            "$remote_addr - $remote_user [$time_local] \"$request\" $status $body_bytes_sent \"$http_referer\" \"$http_user_agent\"");
+
+    private String[] lines;
+    private ByteBuffer buffer;
+    private int[] starts;
+    private int[] ends;
+    private LogRecordView record;
+    private LogRecordView nginxRecord;
+    private ByteBuffer jsonBuffer;
+    private int[] jsonStarts;
+    private int[] jsonEnds;
+    private LogRecordView jsonRecord;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        List<String> corpus = LogCorpus.lines(CORPUS_SIZE, 1);
+        lines = corpus.toArray(new String[0]);
+        byte[] bytes = String.join("\n", corpus).getBytes(StandardCharsets.UTF_8);
+        buffer = ByteBuffer.allocateDirect(bytes.length).put(bytes);
+        starts = new int[CORPUS_SIZE];
+        ends = new int[CORPUS_SIZE];
+        int position = 0;
+        for (int i = 0; i < CORPUS_SIZE; i++) {
+            starts[i] = position;
+            ends[i] = position + lines[i].getBytes(StandardCharsets.UTF_8).length;
+            position = ends[i] + 1;
+        }
+        record = new LogRecordView();
+        nginxRecord = new LogRecordView(NGINX_COMBINED);
+
+        StringBuilder json = new StringBuilder();
+        jsonStarts = new int[CORPUS_SIZE];
+        jsonEnds = new int[CORPUS_SIZE];
+        for (int i = 0; i < CORPUS_SIZE; i++) {
+            LogEntry entry = new LogEntry(lines[i]);
+            String line = lines[i];
+            jsonStarts[i] = json.length();
+            json.append("{\"remote_addr\":").append(quote(entry.getIpAddress()))
+                    .append(",\"time_local\":").append(quote(line.substring(line.indexOf('[') + 1, line.indexOf(']'))))
+                    .append(",\"request\":").append(quote(entry.getMethod() + " " + entry.getPath() + " HTTP/1.1"))
+                    .append(",\"status\":").append(entry.getResponseCode())
+                    .append(",\"body_bytes_sent\":").append(entry.getResponseSize())
+                    .append(",\"http_referer\":").append(quote(entry.getReferer() == null ? "-" : entry.getReferer()))
+                    .append(",\"http_user_agent\":").append(quote(line.substring(line.lastIndexOf('"', line.length() - 2) + 1, line.length() - 1)))
+                    .append(",\"request_time\":\"0.042\"}");
+            jsonEnds[i] = json.length();
+            json.append('\n');
+        }
+        byte[] jsonBytes = json.toString().getBytes(StandardCharsets.US_ASCII);
+        jsonBuffer = ByteBuffer.allocateDirect(jsonBytes.length).put(jsonBytes);
+        jsonRecord = new LogRecordView(LogFormat.JSON);
+    }
+
+    @Benchmark
+    public LogEntry logEntry() {
+        return new LogEntry(lines[next()]);
+    }
+
+    @Benchmark
+    public LogRecordView byteParser() {
+        int i = next();
+        ByteLogParser.parse(buffer, starts[i], ends[i], record);
+        return record;
+    }
+
+    @Benchmark
+    public LogRecordView nginxFormat() {
+        int i = next();
+        nginxRecord.parse(buffer, starts[i], ends[i]);
+        return nginxRecord;
+    }
+
+    @Benchmark
+    public LogRecordView jsonFormat() {
+        int i = next();
+        jsonRecord.parse(jsonBuffer, jsonStarts[i], jsonEnds[i]);
+        return jsonRecord;
+    }
+
+    private static String quote(String value) {
+        return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+    private int next() {
+        index = (index + 1) & (CORPUS_SIZE - 1);
+        return index;
+    }
+}
@@ -0,0 +1,60 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatisticsBenchmark {
+    private static final int CORPUS_SIZE = 1 << 16;
+
+    @Param({"exact", "approx", "detect"})
+    public String mode;
+
+    private LogEntry[] entries;
+    private Statistics statistics;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        List<String> lines = LogCorpus.lines(CORPUS_SIZE, 3);
+        entries = new LogEntry[CORPUS_SIZE];
+        for (int i = 0; i < CORPUS_SIZE; i++) {
+            entries[i] = new LogEntry(lines.get(i));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void newStatistics() {
+        statistics = new Statistics(mode.equals("approx") ? SketchSettings.defaults() : null,
+                mode.equals("detect") ? BotDetectorSettings.defaults() : null);
+    }
+
+    @Benchmark
+    public Statistics addEntry() {
+        statistics.addEntry(entries[next()]);
+        return statistics;
+    }
+
+    private int next() {
+        index = (index + 1) & (CORPUS_SIZE - 1);
+        return index;
+    }
+}
@@ -0,0 +1,60 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimestampBenchmark {
+    private static final int CORPUS_SIZE = 4096;
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("dd/MMM/yyyy:HH:mm:ss Z", Locale.ENGLISH);
+
+    private String[] timestamps;
+    private TimestampDecoder decoder;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        List<String> lines = LogCorpus.lines(CORPUS_SIZE, 4);
+        timestamps = new String[CORPUS_SIZE];
+        for (int i = 0; i < CORPUS_SIZE; i++) {
+            String line = lines.get(i);
+            timestamps[i] = line.substring(line.indexOf('[') + 1, line.indexOf(']'));
+        }
+        decoder = new TimestampDecoder();
+    }
+
+    @Benchmark
+    public long timestampDecoder() {
+        String timestamp = timestamps[next()];
+        return decoder.decode(timestamp, 0, timestamp.length());
+    }
+
+    @Benchmark
+    public long dateTimeFormatter() {
+        return ZonedDateTime.parse(timestamps[next()], FORMATTER).toEpochSecond();
+    }
+
+    private int next() {
+        index = (index + 1) & (CORPUS_SIZE - 1);
+        return index;
+    }
+}
@@ -0,0 +1,53 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserAgentBenchmark {
+    private static final int CORPUS_SIZE = 4096;
+
+    private String[] userAgents;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        List<String> lines = LogCorpus.lines(CORPUS_SIZE, 2);
+        userAgents = new String[CORPUS_SIZE];
+        for (int i = 0; i < CORPUS_SIZE; i++) {
+            String line = lines.get(i);
+            userAgents[i] = line.substring(line.lastIndexOf('"', line.length() - 2) + 1, line.length() - 1);
+        }
+    }
+
+    @Benchmark
+    public UserAgent construct() {
+        return new UserAgent(userAgents[next()]);
+    }
+
+    @Benchmark
+    public UserAgent cached() {
+        return UserAgent.of(userAgents[next()]);
+    }
+
+    private int next() {
+        index = (index + 1) & (CORPUS_SIZE - 1);
+        return index;
+    }
+}
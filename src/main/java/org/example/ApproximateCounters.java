@@ -0,0 +1,59 @@
+package org.example;
+
+import java.util.Map;
+
+final class ApproximateCounters {
+    private final SketchSettings settings;
+    final HyperLogLog existingPages;
+    final HyperLogLog nonExistingPages;
+    final HyperLogLog realUserIps;
+    final HyperLogLog refererDomains;
+    final CountMinSketch visitsPerUser;
+    final HeavyHitters mostActiveUsers;
+
+    ApproximateCounters(SketchSettings settings) {
+        int precision = HyperLogLog.precisionFor(settings.getDistinctError());
+        this.settings = settings;
+        this.existingPages = new HyperLogLog(precision);
+        this.nonExistingPages = new HyperLogLog(precision);
+        this.realUserIps = new HyperLogLog(precision);
+        this.refererDomains = new HyperLogLog(precision);
+        this.visitsPerUser = new CountMinSketch(settings.getFrequencyError(), settings.getFailureProbability());
+        this.mostActiveUsers = new HeavyHitters(settings.getHeavyHitters());
+    }
+
+    SketchSettings getSettings() {
+        return settings;
+    }
+
+    int addUserVisit(long hash) {
+        realUserIps.add(hash);
+        long estimate = visitsPerUser.add(hash, 1);
+        return mostActiveUsers.offer(hash, estimate);
+    }
+
+    void merge(ApproximateCounters other) {
+        existingPages.merge(other.existingPages);
+        nonExistingPages.merge(other.nonExistingPages);
+        realUserIps.merge(other.realUserIps);
+        refererDomains.merge(other.refererDomains);
+        visitsPerUser.merge(other.visitsPerUser);
+        mostActiveUsers.merge(other.mostActiveUsers, visitsPerUser);
+    }
+
+    double distinctError() {
+        return existingPages.relativeError();
+    }
+
+    long frequencyErrorBound() {
+        return (long) Math.ceil(visitsPerUser.epsilon() * visitsPerUser.getTotal());
+    }
+
+    double frequencyConfidence() {
+        return 1 - visitsPerUser.delta();
+    }
+
+    Map<String, Long> topUsers() {
+        return mostActiveUsers.snapshot();
+    }
+}
@@ -0,0 +1,160 @@
+package org.example;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class BatchLogReader {
+    private static final String GLOB_CHARACTERS = "*?[{";
+
+    public static List<Path> resolve(String pattern) throws IOException {
+        Path path = Paths.get(pattern);
+        if (Files.isDirectory(path)) {
+            return listFiles(path, file -> true);
+        }
+        if (Files.isRegularFile(path)) {
+            List<Path> single = new ArrayList<>();
+            single.add(path);
+            return single;
+        }
+
+        int globAt = indexOfGlob(pattern);
+        if (globAt < 0) {
+            throw new IOException("Указанный путь или файл не существует: " + pattern);
+        }
+
+        int separator = Math.max(pattern.lastIndexOf('/', globAt), pattern.lastIndexOf(File.separatorChar, globAt));
+        Path base = separator < 0 ? Paths.get("") : Paths.get(pattern.substring(0, separator + 1));
+        if (!Files.isDirectory(base)) {
+            throw new IOException("Папка не существует: " + base);
+        }
+
+        PathMatcher matcher = base.getFileSystem().getPathMatcher("glob:" + pattern.substring(separator + 1));
+        return listFiles(base, file -> matcher.matches(base.relativize(file)));
+    }
+
+    public static BatchReport read(List<Path> files, int threads, Supplier<Statistics> factory) throws InterruptedException {
+        return read(files, threads, LogFormat.COMBINED, factory);
+    }
+
+    public static BatchReport read(List<Path> files, int threads, LogFormat format, Supplier<Statistics> factory) throws InterruptedException {
+        Statistics total = factory.get();
+        boolean sequential = total.isDetectingBots();
+        List<Path> ordered = new ArrayList<>(files);
+        if (sequential) {
+            ordered.sort(Comparator.comparingLong(BatchLogReader::modifiedAt).thenComparing(Comparator.reverseOrder()));
+        } else {
+            ordered.sort(Comparator.comparingLong(BatchLogReader::sizeOf).reversed());
+        }
+        Supplier<Statistics> shards = sequential ? total::newShard : factory;
+
+        ExecutorService pool = Executors.newFixedThreadPool(sequential ? 1 : Math.max(1, Math.min(threads, ordered.size())));
+        CompletionService<Result> completion = new ExecutorCompletionService<>(pool);
+        long started = System.nanoTime();
+
+        try {
+            for (Path file : ordered) {
+                completion.submit(() -> readFile(file, format, shards));
+            }
+
+            List<FileReport> reports = new ArrayList<>(ordered.size());
+            for (int i = 0; i < ordered.size(); i++) {
+                Result result = get(completion);
+                if (result.statistics != null) {
+                    total.merge(result.statistics);
+                }
+                reports.add(result.report);
+            }
+
+            reports.sort(Comparator.comparing(FileReport::getPath));
+            return new BatchReport(total, reports, System.nanoTime() - started);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static Result get(CompletionService<Result> completion) throws InterruptedException {
+        try {
+            return completion.take().get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Сбой обработки файла", e.getCause());
+        }
+    }
+
+    private static Result readFile(Path path, LogFormat format, Supplier<Statistics> factory) {
+        long size = sizeOf(path);
+        long started = System.nanoTime();
+        Statistics statistics = factory.get();
+        try {
+            File file = path.toFile();
+            if (CompressedLogReader.isCompressed(file)) {
+                CompressedLogReader.read(file, format, statistics);
+            } else {
+                MappedLogReader.read(file, format, statistics);
+            }
+            return new Result(statistics, new FileReport(path, size, System.nanoTime() - started, statistics, null));
+        } catch (Exception e) {
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            return new Result(null, new FileReport(path, size, System.nanoTime() - started, null, message));
+        }
+    }
+
+    private static List<Path> listFiles(Path directory, PathMatcher filter) throws IOException {
+        try (Stream<Path> stream = Files.walk(directory)) {
+            return stream.filter(Files::isRegularFile)
+                    .filter(file -> !file.getFileName().toString().endsWith(ColumnarLogCache.SUFFIX))
+                    .filter(file -> !TimeIndex.isIndexFile(file))
+                    .filter(filter::matches)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static int indexOfGlob(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            if (GLOB_CHARACTERS.indexOf(pattern.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long modifiedAt(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static class Result {
+        final Statistics statistics;
+        final FileReport report;
+
+        Result(Statistics statistics, FileReport report) {
+            this.statistics = statistics;
+            this.report = report;
+        }
+    }
+}
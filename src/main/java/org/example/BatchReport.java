@@ -0,0 +1,65 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class BatchReport {
+    private final Statistics statistics;
+    private final List<FileReport> files;
+    private final long elapsedNanos;
+
+    BatchReport(Statistics statistics, List<FileReport> files, long elapsedNanos) {
+        this.statistics = statistics;
+        this.files = files;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
+    public List<FileReport> getFiles() {
+        return new ArrayList<>(files);
+    }
+
+    public int getFailedCount() {
+        int failed = 0;
+        for (FileReport file : files) {
+            if (file.isFailed()) {
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    public long getTotalBytes() {
+        long total = 0;
+        for (FileReport file : files) {
+            total += file.getSize();
+        }
+        return total;
+    }
+
+    public double getFilesPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : files.size() * 1e9 / elapsedNanos;
+    }
+
+    public double getMegabytesPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : getTotalBytes() / (1024.0 * 1024.0) * 1e9 / elapsedNanos;
+    }
+
+    public void printSummary() {
+        System.out.println("Обработка по файлам:");
+        for (FileReport file : files) {
+            if (file.isFailed()) {
+                System.out.printf("  %s: ошибка - %s%n", file.getPath(), file.getFailure());
+            } else {
+                System.out.printf("  %s: %,d байт, %,d записей, %,d ошибок, %d мс%n", file.getPath(), file.getSize(),
+                        file.getEntryCount(), file.getErrorRequests(), file.getElapsedMillis());
+            }
+        }
+        System.out.printf("Файлов: %d (с ошибками: %d), объем: %.2f МБ, время: %d мс%n", files.size(), getFailedCount(),
+                getTotalBytes() / (1024.0 * 1024.0), elapsedNanos / 1_000_000);
+        System.out.printf("Пропускная способность: %.2f файлов/с, %.2f МБ/с%n", getFilesPerSecond(), getMegabytesPerSecond());
+    }
+}
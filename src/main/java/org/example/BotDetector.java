@@ -0,0 +1,136 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+final class BotDetector {
+    static final int WAYS = 8;
+    static final int LOCKS = 64;
+
+    private static final int TOKEN = 1000;
+    private static final byte RATE_EXCEEDED = 1;
+    private static final byte TOO_MANY_NOT_FOUND = 2;
+
+    private final BotDetectorSettings settings;
+    private final int bucketMask;
+    private final long burstMillis;
+    private final long refillMillis;
+    private final long[] keys;
+    private final long[] lastSeconds;
+    private final int[] tokens;
+    private final int[] requests;
+    private final int[] notFound;
+    private final byte[] flags;
+    private final ReentrantLock[] locks;
+    private final LongAdder flaggedIps = new LongAdder();
+    private final LongAdder rateFlags = new LongAdder();
+    private final LongAdder notFoundFlags = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    BotDetector(BotDetectorSettings settings) {
+        this.settings = settings;
+        int buckets = Integer.highestOneBit(settings.getTrackedIps() / WAYS);
+        int capacity = buckets * WAYS;
+        this.bucketMask = buckets - 1;
+        this.burstMillis = (long) settings.getBurst() * TOKEN;
+        this.refillMillis = Math.max(1, Math.round(settings.getRequestsPerSecond() * TOKEN));
+        this.keys = new long[capacity];
+        this.lastSeconds = new long[capacity];
+        this.tokens = new int[capacity];
+        this.requests = new int[capacity];
+        this.notFound = new int[capacity];
+        this.flags = new byte[capacity];
+        this.locks = new ReentrantLock[Math.min(LOCKS, buckets)];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        Arrays.fill(lastSeconds, Long.MIN_VALUE);
+    }
+
+    BotDetectorSettings getSettings() {
+        return settings;
+    }
+
+    boolean check(long ipHash, long second, int responseCode) {
+        long key = ipHash == 0 ? 1 : ipHash;
+        int bucket = (int) (key ^ (key >>> 32)) & bucketMask;
+        ReentrantLock lock = locks[bucket & (locks.length - 1)];
+        lock.lock();
+        try {
+            return update(key, bucket * WAYS, second, responseCode);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean update(long key, int base, long second, int responseCode) {
+        int slot = -1;
+        int victim = base;
+        for (int i = base; i < base + WAYS; i++) {
+            if (keys[i] == key) {
+                slot = i;
+                break;
+            }
+            if (lastSeconds[i] < lastSeconds[victim]) {
+                victim = i;
+            }
+        }
+
+        if (slot < 0) {
+            slot = victim;
+            if (keys[slot] != 0) {
+                evictions.increment();
+            }
+            keys[slot] = key;
+            lastSeconds[slot] = second == TimestampDecoder.INVALID ? 0 : second;
+            tokens[slot] = (int) burstMillis;
+            requests[slot] = 0;
+            notFound[slot] = 0;
+            flags[slot] = 0;
+        } else if (second != TimestampDecoder.INVALID && second > lastSeconds[slot]) {
+            tokens[slot] = (int) Math.min(burstMillis, tokens[slot] + (second - lastSeconds[slot]) * refillMillis);
+            lastSeconds[slot] = second;
+        }
+
+        byte flag = 0;
+        if (tokens[slot] >= TOKEN) {
+            tokens[slot] -= TOKEN;
+        } else {
+            flag = RATE_EXCEEDED;
+        }
+
+        int total = ++requests[slot];
+        int missing = responseCode == 404 ? ++notFound[slot] : notFound[slot];
+        if (total >= settings.getMinRequests() && missing >= settings.getNotFoundRatio() * total) {
+            flag |= TOO_MANY_NOT_FOUND;
+        }
+
+        if (flag != 0 && flags[slot] == 0) {
+            flaggedIps.increment();
+            if ((flag & RATE_EXCEEDED) != 0) {
+                rateFlags.increment();
+            } else {
+                notFoundFlags.increment();
+            }
+        }
+        flags[slot] |= flag;
+        return flags[slot] != 0;
+    }
+
+    long getFlaggedIps() {
+        return flaggedIps.sum();
+    }
+
+    long getRateFlags() {
+        return rateFlags.sum();
+    }
+
+    long getNotFoundFlags() {
+        return notFoundFlags.sum();
+    }
+
+    long getEvictions() {
+        return evictions.sum();
+    }
+}
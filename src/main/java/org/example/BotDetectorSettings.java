@@ -0,0 +1,56 @@
+package org.example;
+
+public final class BotDetectorSettings {
+    private final int trackedIps;
+    private final int burst;
+    private final double requestsPerSecond;
+    private final int minRequests;
+    private final double notFoundRatio;
+
+    public BotDetectorSettings(int trackedIps, int burst, double requestsPerSecond, int minRequests, double notFoundRatio) {
+        if (trackedIps < BotDetector.WAYS) {
+            throw new IllegalArgumentException("Размер таблицы IP должен быть не меньше " + BotDetector.WAYS + ": " + trackedIps);
+        }
+        if (burst < 1) {
+            throw new IllegalArgumentException("Допустимый всплеск запросов должен быть положительным: " + burst);
+        }
+        if (requestsPerSecond <= 0) {
+            throw new IllegalArgumentException("Допустимая частота запросов должна быть положительной: " + requestsPerSecond);
+        }
+        if (minRequests < 1) {
+            throw new IllegalArgumentException("Минимальное число запросов должно быть положительным: " + minRequests);
+        }
+        if (notFoundRatio <= 0 || notFoundRatio > 1) {
+            throw new IllegalArgumentException("Доля ответов 404 должна быть в интервале (0, 1]: " + notFoundRatio);
+        }
+        this.trackedIps = trackedIps;
+        this.burst = burst;
+        this.requestsPerSecond = requestsPerSecond;
+        this.minRequests = minRequests;
+        this.notFoundRatio = notFoundRatio;
+    }
+
+    public static BotDetectorSettings defaults() {
+        return new BotDetectorSettings(1 << 18, 120, 2.0, 20, 0.5);
+    }
+
+    public int getTrackedIps() {
+        return trackedIps;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public double getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+
+    public int getMinRequests() {
+        return minRequests;
+    }
+
+    public double getNotFoundRatio() {
+        return notFoundRatio;
+    }
+}
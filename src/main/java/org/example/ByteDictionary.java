@@ -0,0 +1,179 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public final class ByteDictionary {
+    static final int MISSING = -1;
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private byte[] arena;
+    private int arenaSize;
+    private int[] offsets;
+    private int[] hashes;
+    private int[] table;
+    private int size;
+    private int mask;
+    private int resizeAt;
+    private long hits;
+    private long misses;
+
+    ByteDictionary() {
+        arena = new byte[4096];
+        offsets = new int[65];
+        hashes = new int[64];
+        allocate(LongIntMap.tableSize(64));
+    }
+
+    int intern(ByteBuffer buffer, int start, int end) {
+        int hash = SliceCache.hash(buffer, start, end);
+        int id = find(buffer, start, end, hash);
+        if (id != MISSING) {
+            hits++;
+            return id;
+        }
+        misses++;
+        return insert(buffer, start, end, hash);
+    }
+
+    int intern(CharSequence value) {
+        byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+        return intern(ByteBuffer.wrap(bytes), 0, bytes.length);
+    }
+
+    int intern(ByteDictionary other, int id) {
+        ByteBuffer buffer = ByteBuffer.wrap(other.arena);
+        int start = other.offsets[id];
+        int end = other.offsets[id + 1];
+        int hash = other.hashes[id];
+        int existing = find(buffer, start, end, hash);
+        return existing != MISSING ? existing : insert(buffer, start, end, hash);
+    }
+
+    int find(CharSequence value) {
+        byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return find(buffer, 0, bytes.length, SliceCache.hash(buffer, 0, bytes.length));
+    }
+
+    int find(ByteBuffer buffer, int start, int end) {
+        return find(buffer, start, end, SliceCache.hash(buffer, start, end));
+    }
+
+    int find(ByteDictionary other, int id) {
+        return find(ByteBuffer.wrap(other.arena), other.offsets[id], other.offsets[id + 1], other.hashes[id]);
+    }
+
+    String get(int id) {
+        return new String(arena, offsets[id], offsets[id + 1] - offsets[id], StandardCharsets.UTF_8);
+    }
+
+    int compare(int a, int b) {
+        return Arrays.compareUnsigned(arena, offsets[a], offsets[a + 1], arena, offsets[b], offsets[b + 1]);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    public long getArenaBytes() {
+        return arenaSize;
+    }
+
+    public long getArenaCapacity() {
+        return arena.length;
+    }
+
+    public long getMemoryFootprint() {
+        return arena.length + 4L * (offsets.length + hashes.length + table.length);
+    }
+
+    private int find(ByteBuffer buffer, int start, int end, int hash) {
+        int length = end - start;
+        int slot = slot(hash);
+        int entry;
+        while ((entry = table[slot]) != 0) {
+            int id = entry - 1;
+            if (hashes[id] == hash && offsets[id + 1] - offsets[id] == length && matches(id, buffer, start)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    private boolean matches(int id, ByteBuffer buffer, int start) {
+        int offset = offsets[id];
+        int length = offsets[id + 1] - offset;
+        for (int i = 0; i < length; i++) {
+            if (arena[offset + i] != buffer.get(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int insert(ByteBuffer buffer, int start, int end, int hash) {
+        int length = end - start;
+        if (arenaSize + length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length << 1, arenaSize + length));
+        }
+        if (size == hashes.length) {
+            hashes = Arrays.copyOf(hashes, size << 1);
+            offsets = Arrays.copyOf(offsets, (size << 1) + 1);
+        }
+
+        buffer.get(start, arena, arenaSize, length);
+        int id = size++;
+        arenaSize += length;
+        offsets[id + 1] = arenaSize;
+        hashes[id] = hash;
+
+        int slot = slot(hash);
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = id + 1;
+        if (size >= resizeAt) {
+            rehash(table.length << 1);
+        }
+        return id;
+    }
+
+    private int slot(int hash) {
+        int h = hash * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private void rehash(int newSize) {
+        allocate(newSize);
+        for (int id = 0; id < size; id++) {
+            int slot = slot(hashes[id]);
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = id + 1;
+        }
+    }
+
+    private void allocate(int tableSize) {
+        table = new int[tableSize];
+        mask = tableSize - 1;
+        resizeAt = (int) (tableSize * LOAD_FACTOR);
+    }
+}
@@ -0,0 +1,176 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+
+final class ByteLogParser {
+    private static final HttpMethod[] METHODS = HttpMethod.values();
+
+    private ByteLogParser() {
+    }
+
+    static boolean parse(ByteBuffer buffer, int start, int end, LogRecordView record) {
+        return parse(buffer, start, end, record, null);
+    }
+
+    static boolean parse(ByteBuffer buffer, int start, int end, LogRecordView record, RecordFilter filter) {
+        while (start < end && buffer.get(start) <= ' ') {
+            start++;
+        }
+        while (end > start && buffer.get(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return false;
+        }
+
+        record.reset(buffer);
+
+        int firstSpace = indexOf(buffer, ' ', start, end);
+        if (firstSpace > start) {
+            record.ipStart = start;
+            record.ipEnd = firstSpace;
+        }
+
+        int dateStart = indexOf(buffer, '[', start, end);
+        int dateEnd = indexOf(buffer, ']', dateStart < 0 ? start : dateStart, end);
+        if (dateStart > start && dateEnd > dateStart) {
+            record.epochSecond = record.timestampDecoder.decode(buffer, dateStart + 1, dateEnd);
+            record.offsetSeconds = record.timestampDecoder.getOffsetSeconds();
+        }
+        record.malformed = record.epochSecond == TimestampDecoder.INVALID;
+
+        int quoteStart = indexOf(buffer, '"', dateEnd < 0 ? start : dateEnd, end);
+        int quoteEnd = quoteStart < 0 ? indexOf(buffer, '"', start, end) : indexOf(buffer, '"', quoteStart + 1, end);
+        if (quoteStart > start && quoteEnd > quoteStart) {
+            parseRequest(buffer, quoteStart + 1, quoteEnd, record);
+        }
+
+        int afterRequest = quoteEnd < 0 ? start : quoteEnd + 1;
+        int codeStart = skipWhitespace(buffer, afterRequest, end);
+        int codeEnd = skipToken(buffer, codeStart, end);
+        int sizeStart = skipWhitespace(buffer, codeEnd, end);
+        int sizeEnd = skipToken(buffer, sizeStart, end);
+        if (sizeEnd > sizeStart) {
+            record.responseCode = parseInt(buffer, codeStart, codeEnd);
+            record.responseSize = parseInt(buffer, sizeStart, sizeEnd);
+        }
+        if (filter != null && !filter.testFields(record)) {
+            record.filtered = true;
+            return false;
+        }
+
+        int refStart = indexOf(buffer, '"', afterRequest, end);
+        int refEnd = refStart < 0 ? indexOf(buffer, '"', start, end) : indexOf(buffer, '"', refStart + 1, end);
+        int uaStart = indexOf(buffer, '"', refEnd < 0 ? start : refEnd + 1, end);
+        int uaEnd = uaStart < 0 ? indexOf(buffer, '"', start, end) : indexOf(buffer, '"', uaStart + 1, end);
+
+        if (refStart > start && refEnd > refStart && !isDash(buffer, refStart + 1, refEnd)) {
+            record.refererStart = refStart + 1;
+            record.refererEnd = refEnd;
+        }
+
+        if (uaStart > start && uaEnd > uaStart && !isDash(buffer, uaStart + 1, uaEnd)) {
+            record.userAgentStart = uaStart + 1;
+            record.userAgentEnd = uaEnd;
+        }
+
+        if (uaStart > start && uaEnd > uaStart) {
+            int timeStart = skipWhitespace(buffer, uaEnd + 1, end);
+            int timeEnd = skipToken(buffer, timeStart, end);
+            if (timeEnd > timeStart) {
+                record.requestTimeMicros = LogField.parseMicros(buffer, timeStart, timeEnd);
+                int upstreamStart = skipWhitespace(buffer, timeEnd, end);
+                if (upstreamStart < end) {
+                    record.upstreamTimeMicros = LogField.parseMicrosSum(buffer, upstreamStart, end);
+                }
+            }
+        }
+
+        return true;
+    }
+
+    static void parseRequest(ByteBuffer buffer, int start, int end, LogRecordView record) {
+        int methodEnd = skipToken(buffer, start, end);
+        int pathStart = skipWhitespace(buffer, methodEnd, end);
+        int pathEnd = skipToken(buffer, pathStart, end);
+        if (pathEnd > pathStart) {
+            record.method = parseHttpMethod(buffer, start, methodEnd);
+            record.pathStart = pathStart;
+            record.pathEnd = pathEnd;
+        }
+    }
+
+    static HttpMethod parseHttpMethod(ByteBuffer buffer, int start, int end) {
+        for (HttpMethod method : METHODS) {
+            String name = method.name();
+            if (name.length() != end - start) {
+                continue;
+            }
+            int i = 0;
+            while (i < name.length() && (buffer.get(start + i) & 0xDF) == name.charAt(i)) {
+                i++;
+            }
+            if (i == name.length()) {
+                return method;
+            }
+        }
+        return HttpMethod.UNKNOWN;
+    }
+
+    static int parseInt(ByteBuffer buffer, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        if (i == end) {
+            return 0;
+        }
+
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return 0;
+            }
+            value = value * 10 + digit;
+            if (value > Integer.MAX_VALUE + 1L) {
+                return 0;
+            }
+        }
+        value = negative ? -value : value;
+        return value > Integer.MAX_VALUE ? 0 : (int) value;
+    }
+
+    static boolean isDash(ByteBuffer buffer, int start, int end) {
+        return end - start == 1 && buffer.get(start) == '-';
+    }
+
+    static int indexOf(ByteBuffer buffer, char c, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (buffer.get(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipWhitespace(ByteBuffer buffer, int from, int end) {
+        while (from < end && isWhitespace(buffer.get(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    private static int skipToken(ByteBuffer buffer, int from, int end) {
+        while (from < end && !isWhitespace(buffer.get(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '\f' || b == 0x0B;
+    }
+}
@@ -0,0 +1,17 @@
+package org.example;
+
+final class CachedRecord {
+    long epochSecond;
+    int responseCode;
+    int responseSize;
+    HttpMethod method;
+    UserAgent userAgent;
+    String path;
+    String refererDomain;
+    int ipKind;
+    long ipHigh;
+    long ipLow;
+    String ip;
+    long requestTimeMicros;
+    long upstreamTimeMicros;
+}
@@ -0,0 +1,68 @@
+package org.example;
+
+final class ClockCache<K> {
+    static final int MISSING = -1;
+
+    private static final int WAYS = 4;
+
+    private final Object[] keys;
+    private final int[] values;
+    private final boolean[] referenced;
+    private final int[] hands;
+    private final int setMask;
+    private long hits;
+    private long misses;
+
+    ClockCache(int capacity) {
+        int sets = Integer.highestOneBit(Math.max(capacity / WAYS, 1) * 2 - 1);
+        this.keys = new Object[sets * WAYS];
+        this.values = new int[sets * WAYS];
+        this.referenced = new boolean[sets * WAYS];
+        this.hands = new int[sets];
+        this.setMask = sets - 1;
+    }
+
+    int get(K key) {
+        int base = set(key) * WAYS;
+        for (int way = 0; way < WAYS; way++) {
+            Object existing = keys[base + way];
+            if (existing == null) {
+                break;
+            }
+            if (existing.equals(key)) {
+                referenced[base + way] = true;
+                hits++;
+                return values[base + way];
+            }
+        }
+        misses++;
+        return MISSING;
+    }
+
+    void put(K key, int value) {
+        int set = set(key);
+        int base = set * WAYS;
+        int hand = hands[set];
+        while (keys[base + hand] != null && referenced[base + hand]) {
+            referenced[base + hand] = false;
+            hand = (hand + 1) % WAYS;
+        }
+        keys[base + hand] = key;
+        values[base + hand] = value;
+        referenced[base + hand] = false;
+        hands[set] = (hand + 1) % WAYS;
+    }
+
+    long getHits() {
+        return hits;
+    }
+
+    long getMisses() {
+        return misses;
+    }
+
+    private int set(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & setMask;
+    }
+}
@@ -0,0 +1,489 @@
+package org.example;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+public class ColumnarLogCache {
+    static final String SUFFIX = ".alpc";
+
+    private static final int MAGIC = 0x414C5043;
+    private static final int VERSION = 3;
+    private static final int HEADER_SIZE = 64;
+    private static final int GROUP_SIZE = 1 << 16;
+    private static final int GROUP_HEADER_SIZE = 8;
+    private static final int BYTES_PER_RECORD = 8 + 4 + 4 + 4 + 4 + 4 + 4 + 2 + 1 + 1;
+    private static final int SAMPLE_SIZE = 64 * 1024;
+    private static final int IPV4_FLAG = 0x80;
+    private static final int METHOD_MASK = 0x7F;
+    private static final int NO_ID = -1;
+    private static final HttpMethod[] METHODS = HttpMethod.values();
+
+    public static boolean read(File source, Statistics statistics) throws IOException {
+        return read(source, LogFormat.COMBINED, statistics);
+    }
+
+    public static boolean read(File source, LogFormat format, Statistics statistics) throws IOException {
+        Path cache = cachePath(source.toPath());
+        SourceKey key = SourceKey.of(source.toPath(), format);
+
+        if (Files.isRegularFile(cache) && replay(cache, key, statistics)) {
+            return true;
+        }
+        build(source, format, cache, key, statistics);
+        return false;
+    }
+
+    static Path cachePath(Path source) {
+        return source.resolveSibling(source.getFileName() + SUFFIX);
+    }
+
+    private static void build(File source, LogFormat format, Path cache, SourceKey key, Statistics statistics) throws IOException {
+        Writer writer;
+        try {
+            writer = new Writer(Files.createTempFile(cache.toAbsolutePath().getParent(), source.getName(), ".tmp"));
+        } catch (IOException e) {
+            System.err.println("Не удалось создать кэш " + cache + ": " + e.getMessage());
+            parse(source, format, statistics::addEntry);
+            return;
+        }
+
+        try {
+            parse(source, format, record -> {
+                statistics.addEntry(record);
+                writer.add(record);
+            });
+            writer.finish(key, cache);
+        } finally {
+            writer.discard();
+        }
+    }
+
+    private static void parse(File source, LogFormat format, RecordHandler handler) throws IOException {
+        if (CompressedLogReader.isCompressed(source)) {
+            CompressedLogReader.read(source, format, handler);
+        } else {
+            try (FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+                MappedLogReader.read(channel, 0, channel.size(), format, handler);
+            }
+        }
+    }
+
+    private static boolean replay(Path cache, SourceKey key, Statistics statistics) throws IOException {
+        try (FileChannel channel = FileChannel.open(cache, StandardOpenOption.READ)) {
+            Index index;
+            try {
+                index = Index.load(channel, key);
+            } catch (IOException | RuntimeException e) {
+                index = null;
+            }
+            if (index == null) {
+                return false;
+            }
+
+            MappedByteBuffer[] groups = new MappedByteBuffer[index.groupOffsets.length];
+            try {
+                for (int g = 0; g < groups.length; g++) {
+                    long start = index.groupOffsets[g];
+                    long end = g + 1 < groups.length ? index.groupOffsets[g + 1] : index.footerOffset;
+                    if (start < HEADER_SIZE || end < start || end > index.footerOffset) {
+                        return false;
+                    }
+                    groups[g] = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                    if (!isValidGroup(groups[g], index)) {
+                        return false;
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                return false;
+            }
+
+            CachedRecord record = new CachedRecord();
+            for (MappedByteBuffer group : groups) {
+                replayGroup(group, index, record, statistics);
+            }
+            return true;
+        }
+    }
+
+    private static boolean isValidGroup(MappedByteBuffer buffer, Index index) {
+        if (buffer.capacity() < GROUP_HEADER_SIZE) {
+            return false;
+        }
+        int count = buffer.getInt(0);
+        if (count < 0 || GROUP_HEADER_SIZE + (long) count * BYTES_PER_RECORD > buffer.capacity()
+                || buffer.getInt(4) != checksum(buffer, GROUP_HEADER_SIZE, GROUP_HEADER_SIZE + count * BYTES_PER_RECORD)) {
+            return false;
+        }
+
+        int ipsAt = GROUP_HEADER_SIZE + 12 * count;
+        int pathsAt = ipsAt + 4 * count;
+        int referersAt = pathsAt + 4 * count;
+        int agentsAt = referersAt + 14 * count;
+        int flagsAt = agentsAt + count;
+        for (int i = 0; i < count; i++) {
+            int flags = buffer.get(flagsAt + i) & 0xFF;
+            int ip = buffer.getInt(ipsAt + 4 * i);
+            int path = buffer.getInt(pathsAt + 4 * i);
+            int referer = buffer.getInt(referersAt + 4 * i);
+            int agent = buffer.get(agentsAt + i);
+            if ((flags & METHOD_MASK) >= METHODS.length
+                    || path < 0 || path >= index.paths.length
+                    || (referer != NO_ID && (referer < 0 || referer >= index.refererDomains.length))
+                    || ((flags & IPV4_FLAG) == 0 && (ip < 0 || ip >= index.ips.length))
+                    || agent < 0 || agent >= UserAgentClassifier.idCount()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int checksum(ByteBuffer buffer, int start, int end) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().limit(end).position(start));
+        return (int) crc.getValue();
+    }
+
+    private static void replayGroup(MappedByteBuffer buffer, Index index, CachedRecord record, Statistics statistics) {
+        int count = buffer.getInt(0);
+        int secondsAt = GROUP_HEADER_SIZE;
+        int sizesAt = secondsAt + 8 * count;
+        int ipsAt = sizesAt + 4 * count;
+        int pathsAt = ipsAt + 4 * count;
+        int referersAt = pathsAt + 4 * count;
+        int requestTimesAt = referersAt + 4 * count;
+        int upstreamTimesAt = requestTimesAt + 4 * count;
+        int statusAt = upstreamTimesAt + 4 * count;
+        int agentsAt = statusAt + 2 * count;
+        int flagsAt = agentsAt + count;
+
+        for (int i = 0; i < count; i++) {
+            int flags = buffer.get(flagsAt + i) & 0xFF;
+            int ip = buffer.getInt(ipsAt + 4 * i);
+            int referer = buffer.getInt(referersAt + 4 * i);
+
+            record.epochSecond = buffer.getLong(secondsAt + 8 * i);
+            record.responseSize = buffer.getInt(sizesAt + 4 * i);
+            record.responseCode = buffer.getShort(statusAt + 2 * i) & 0xFFFF;
+            record.method = METHODS[flags & METHOD_MASK];
+            record.userAgent = UserAgentClassifier.byId(buffer.get(agentsAt + i));
+            record.path = index.paths[buffer.getInt(pathsAt + 4 * i)];
+            record.refererDomain = referer == NO_ID ? null : index.refererDomains[referer];
+            record.requestTimeMicros = buffer.getInt(requestTimesAt + 4 * i);
+            record.upstreamTimeMicros = buffer.getInt(upstreamTimesAt + 4 * i);
+
+            if ((flags & IPV4_FLAG) != 0) {
+                record.ipKind = IpAddress.V4;
+                record.ipHigh = 0;
+                record.ipLow = ip & 0xFFFFFFFFL;
+                record.ip = null;
+            } else {
+                record.ipKind = index.ipKinds[ip];
+                record.ipHigh = index.ipHighs[ip];
+                record.ipLow = index.ipLows[ip];
+                record.ip = index.ips[ip];
+            }
+
+            statistics.addEntry(record);
+        }
+    }
+
+    private static final class SourceKey {
+        final long size;
+        final long modified;
+        final long hash;
+
+        private SourceKey(long size, long modified, long hash) {
+            this.size = size;
+            this.modified = modified;
+            this.hash = hash;
+        }
+
+        static SourceKey of(Path source, LogFormat format) throws IOException {
+            try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+                long size = channel.size();
+                long modified = Files.getLastModifiedTime(source).toMillis();
+                long hash = sample(channel, 0, size);
+                hash = Hashing.mix(hash ^ sample(channel, Math.max(0, size - SAMPLE_SIZE), size));
+                hash = Hashing.mix(hash ^ Hashing.hash(format.getSpec()));
+                return new SourceKey(size, modified, hash);
+            }
+        }
+
+        private static long sample(FileChannel channel, long position, long size) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(SAMPLE_SIZE, size - position));
+            while (buffer.hasRemaining() && channel.read(buffer, position + buffer.position()) > 0) {
+            }
+            return Hashing.hash(size, buffer.array(), buffer.position());
+        }
+    }
+
+    private static final class Index {
+        long footerOffset;
+        long[] groupOffsets;
+        String[] paths;
+        String[] refererDomains;
+        String[] ips;
+        int[] ipKinds;
+        long[] ipHighs;
+        long[] ipLows;
+
+        static Index load(FileChannel channel, SourceKey key) throws IOException {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) {
+                return null;
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+            }
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || header.getLong(8) != key.size
+                    || header.getLong(16) != key.modified || header.getLong(24) != key.hash) {
+                return null;
+            }
+
+            Index index = new Index();
+            int groupCount = header.getInt(40);
+            index.footerOffset = header.getLong(48);
+            if (index.footerOffset < HEADER_SIZE || index.footerOffset > fileSize) {
+                return null;
+            }
+
+            MappedByteBuffer footer = channel.map(FileChannel.MapMode.READ_ONLY, index.footerOffset, fileSize - index.footerOffset);
+            index.groupOffsets = new long[groupCount];
+            for (int g = 0; g < groupCount; g++) {
+                index.groupOffsets[g] = footer.getLong();
+            }
+
+            index.paths = readStrings(footer);
+            String[] referers = readStrings(footer);
+            index.refererDomains = new String[referers.length];
+            for (int i = 0; i < referers.length; i++) {
+                index.refererDomains[i] = Statistics.extractDomain(referers[i]);
+            }
+
+            index.ips = readStrings(footer);
+            index.ipKinds = new int[index.ips.length];
+            index.ipHighs = new long[index.ips.length];
+            index.ipLows = new long[index.ips.length];
+            IpAddress address = new IpAddress();
+            for (int i = 0; i < index.ips.length; i++) {
+                address.parse(index.ips[i]);
+                index.ipKinds[i] = address.kind;
+                index.ipHighs[i] = address.high;
+                index.ipLows[i] = address.low;
+            }
+            return index;
+        }
+
+        private static String[] readStrings(ByteBuffer buffer) {
+            String[] values = new String[buffer.getInt()];
+            byte[] bytes = new byte[MappedLogReader.MAX_LINE_LENGTH];
+            for (int i = 0; i < values.length; i++) {
+                int length = buffer.getInt();
+                if (length > bytes.length) {
+                    bytes = new byte[length];
+                }
+                buffer.get(bytes, 0, length);
+                values[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            }
+            return values;
+        }
+    }
+
+    private static final class Writer {
+        private final Path temp;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(GROUP_HEADER_SIZE + GROUP_SIZE * BYTES_PER_RECORD);
+        private final IpAddress ipAddress = new IpAddress();
+
+        private final long[] seconds = new long[GROUP_SIZE];
+        private final int[] sizes = new int[GROUP_SIZE];
+        private final int[] ips = new int[GROUP_SIZE];
+        private final int[] paths = new int[GROUP_SIZE];
+        private final int[] referers = new int[GROUP_SIZE];
+        private final int[] requestTimes = new int[GROUP_SIZE];
+        private final int[] upstreamTimes = new int[GROUP_SIZE];
+        private final short[] statuses = new short[GROUP_SIZE];
+        private final byte[] agents = new byte[GROUP_SIZE];
+        private final byte[] flags = new byte[GROUP_SIZE];
+        private int count;
+
+        private final Dictionary pathIds = new Dictionary();
+        private final Dictionary refererIds = new Dictionary();
+        private final Dictionary ipIds = new Dictionary();
+        private final List<Long> groupOffsets = new ArrayList<>();
+        private long position = HEADER_SIZE;
+        private long recordCount;
+        private IOException failure;
+
+        Writer(Path temp) throws IOException {
+            this.temp = temp;
+            this.channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+        }
+
+        void add(LogRecordView record) {
+            if (failure != null) {
+                return;
+            }
+
+            int flag = record.getMethod().ordinal();
+            if (record.parseIpAddress(ipAddress) && ipAddress.kind == IpAddress.V4) {
+                flag |= IPV4_FLAG;
+                ips[count] = (int) ipAddress.low;
+            } else {
+                ips[count] = ipIds.idOf(record.getIpAddress());
+            }
+
+            int responseCode = record.getResponseCode();
+            String referer = record.getReferer();
+            seconds[count] = record.getEpochSecond();
+            sizes[count] = record.getResponseSize();
+            paths[count] = pathIds.idOf(record.getPath());
+            referers[count] = referer == null ? NO_ID : refererIds.idOf(referer);
+            requestTimes[count] = (int) Math.min(record.getRequestTimeMicros(), Integer.MAX_VALUE);
+            upstreamTimes[count] = (int) Math.min(record.getUpstreamTimeMicros(), Integer.MAX_VALUE);
+            statuses[count] = (short) (responseCode >= 0 && responseCode <= 0xFFFF ? responseCode : 0);
+            agents[count] = (byte) UserAgentClassifier.idOf(record.getUserAgent());
+            flags[count] = (byte) flag;
+            recordCount++;
+
+            if (++count == GROUP_SIZE) {
+                flushGroup();
+            }
+        }
+
+        void finish(SourceKey key, Path cache) throws IOException {
+            if (count > 0) {
+                flushGroup();
+            }
+            if (failure != null) {
+                System.err.println("Не удалось записать кэш " + cache + ": " + failure.getMessage());
+                return;
+            }
+
+            try {
+                writeFooter(key);
+                channel.close();
+                Files.move(temp, cache, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                System.err.println("Не удалось записать кэш " + cache + ": " + e.getMessage());
+            }
+        }
+
+        private void writeFooter(SourceKey key) throws IOException {
+            long footerOffset = position;
+            buffer.clear();
+            for (long offset : groupOffsets) {
+                ensureCapacity(8);
+                buffer.putLong(offset);
+            }
+            writeStrings(pathIds.values);
+            writeStrings(refererIds.values);
+            writeStrings(ipIds.values);
+            writeBuffer();
+
+            buffer.clear();
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(key.size).putLong(key.modified).putLong(key.hash)
+                    .putLong(recordCount).putInt(groupOffsets.size()).putInt(0).putLong(footerOffset);
+            buffer.position(HEADER_SIZE).flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, buffer.position());
+            }
+        }
+
+        void discard() throws IOException {
+            channel.close();
+            Files.deleteIfExists(temp);
+        }
+
+        private void flushGroup() {
+            buffer.clear();
+            buffer.putInt(count).putInt(0);
+            for (int i = 0; i < count; i++) {
+                buffer.putLong(seconds[i]);
+            }
+            for (int i = 0; i < count; i++) {
+                buffer.putInt(sizes[i]);
+            }
+            for (int i = 0; i < count; i++) {
+                buffer.putInt(ips[i]);
+            }
+            for (int i = 0; i < count; i++) {
+                buffer.putInt(paths[i]);
+            }
+            for (int i = 0; i < count; i++) {
+                buffer.putInt(referers[i]);
+            }
+            for (int i = 0; i < count; i++) {
+                buffer.putInt(requestTimes[i]);
+            }
+            for (int i = 0; i < count; i++) {
+                buffer.putInt(upstreamTimes[i]);
+            }
+            for (int i = 0; i < count; i++) {
+                buffer.putShort(statuses[i]);
+            }
+            buffer.put(agents, 0, count);
+            buffer.put(flags, 0, count);
+            buffer.putInt(4, checksum(buffer, GROUP_HEADER_SIZE, buffer.position()));
+
+            groupOffsets.add(position);
+            count = 0;
+            try {
+                writeBuffer();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+
+        private void writeStrings(List<String> values) throws IOException {
+            ensureCapacity(4);
+            buffer.putInt(values.size());
+            for (String value : values) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                ensureCapacity(4 + bytes.length);
+                buffer.putInt(bytes.length).put(bytes);
+            }
+        }
+
+        private void ensureCapacity(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                writeBuffer();
+                buffer.clear();
+            }
+        }
+
+        private void writeBuffer() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+    }
+
+    private static final class Dictionary {
+        private final ObjectIntMap<String> ids = new ObjectIntMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int idOf(String value) {
+            int id = ids.get(value);
+            if (id == 0) {
+                values.add(value);
+                id = values.size();
+                ids.add(value, id);
+            }
+            return id - 1;
+        }
+    }
+}
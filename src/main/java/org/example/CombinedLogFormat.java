@@ -0,0 +1,15 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+
+final class CombinedLogFormat implements LogFormat {
+    @Override
+    public boolean parse(ByteBuffer buffer, int start, int end, LogRecordView record) {
+        return ByteLogParser.parse(buffer, start, end, record);
+    }
+
+    @Override
+    public String getSpec() {
+        return "combined";
+    }
+}
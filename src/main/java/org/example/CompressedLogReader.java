@@ -0,0 +1,178 @@
+package org.example;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+public class CompressedLogReader {
+    private static final int BLOCK_SIZE = 1 << 20;
+    private static final int QUEUE_CAPACITY = 4;
+    private static final Block END = new Block(new byte[0]);
+
+    public static boolean isCompressed(File file) throws IOException {
+        return Compression.detect(file.toPath()) != Compression.NONE;
+    }
+
+    public static void read(File file, Statistics statistics) throws IOException {
+        read(file, LogFormat.COMBINED, statistics);
+    }
+
+    public static void read(File file, LogFormat format, Statistics statistics) throws IOException {
+        read(file, format, statistics::addEntry);
+    }
+
+    static void read(File file, LogFormat format, RecordHandler handler) throws IOException {
+        Compression compression = Compression.detect(file.toPath());
+        try (InputStream raw = Files.newInputStream(file.toPath());
+             InputStream in = compression.decode(raw)) {
+            read(in, format, handler);
+        }
+    }
+
+    static void read(InputStream in, LogFormat format, RecordHandler handler) throws IOException {
+        Producer producer = new Producer(in);
+        Thread thread = new Thread(producer, "log-decompressor");
+        thread.setDaemon(true);
+        thread.start();
+
+        try {
+            consume(producer, format, handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Чтение сжатого файла прервано");
+        } finally {
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void consume(Producer producer, LogFormat format, RecordHandler handler) throws IOException, InterruptedException {
+        LogRecordView record = new LogRecordView(format);
+        PipelineMetrics metrics = PipelineMetrics.global();
+        long lineNumber = 0;
+
+        while (true) {
+            Block block = producer.filled.take();
+            if (block == END) {
+                break;
+            }
+
+            ByteBuffer buffer = block.buffer;
+            int lineStart = 0;
+            for (int i = 0; i < block.length; i++) {
+                if (block.data[i] == '\n') {
+                    processLine(buffer, lineStart, i, ++lineNumber, record, handler, metrics);
+                    lineStart = i + 1;
+                }
+            }
+            if (lineStart < block.length) {
+                processLine(buffer, lineStart, block.length, ++lineNumber, record, handler, metrics);
+            }
+            producer.free.put(block);
+        }
+
+        if (producer.failure != null) {
+            throw producer.failure;
+        }
+    }
+
+    private static void processLine(ByteBuffer buffer, int start, int end, long lineNumber,
+                                    LogRecordView record, RecordHandler handler, PipelineMetrics metrics) {
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+
+        if (end - start > MappedLogReader.MAX_LINE_LENGTH) {
+            throw new LineTooLongException("Строка #" + lineNumber + " превышает " + MappedLogReader.MAX_LINE_LENGTH + " символа. Длина: " + (end - start));
+        }
+
+        metrics.process(buffer, start, end, lineNumber, record, handler);
+    }
+
+    private static class Block {
+        final byte[] data;
+        final ByteBuffer buffer;
+        int length;
+
+        Block(byte[] data) {
+            this.data = data;
+            this.buffer = ByteBuffer.wrap(data);
+        }
+    }
+
+    private static class Producer implements Runnable {
+        private final InputStream in;
+        private final BlockingQueue<Block> filled = new ArrayBlockingQueue<>(QUEUE_CAPACITY + 2);
+        private final BlockingQueue<Block> free = new ArrayBlockingQueue<>(QUEUE_CAPACITY + 1);
+        private volatile IOException failure;
+
+        Producer(InputStream in) {
+            this.in = in;
+            for (int i = 0; i < QUEUE_CAPACITY + 1; i++) {
+                free.add(new Block(new byte[BLOCK_SIZE]));
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                produce();
+            } catch (InterruptedException ignored) {
+            } catch (IOException e) {
+                failure = e;
+            } catch (RuntimeException e) {
+                failure = new IOException("Сбой распаковки: " + e, e);
+            } finally {
+                filled.add(END);
+            }
+        }
+
+        private void produce() throws IOException, InterruptedException {
+            byte[] carry = new byte[BLOCK_SIZE];
+            int carryLength = 0;
+            boolean eof = false;
+
+            while (!eof) {
+                Block block = free.take();
+                System.arraycopy(carry, 0, block.data, 0, carryLength);
+                int length = carryLength;
+                long readStart = System.nanoTime();
+
+                while (length < BLOCK_SIZE) {
+                    int read = in.read(block.data, length, BLOCK_SIZE - length);
+                    if (read < 0) {
+                        eof = true;
+                        break;
+                    }
+                    length += read;
+                }
+
+                PipelineMetrics.global().recordRead(length - carryLength, System.nanoTime() - readStart);
+
+                int end = length;
+                if (!eof) {
+                    while (end > 0 && block.data[end - 1] != '\n') {
+                        end--;
+                    }
+                    if (end == 0) {
+                        end = length;
+                    }
+                }
+
+                carryLength = length - end;
+                System.arraycopy(block.data, end, carry, 0, carryLength);
+                block.length = end;
+                filled.put(block);
+            }
+        }
+    }
+}
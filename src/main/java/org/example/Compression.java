@@ -0,0 +1,62 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+
+enum Compression {
+    NONE("без сжатия"),
+    GZIP("gzip"),
+    ZSTD("zstd"),
+    BZIP2("bzip2");
+
+    private static final int INFLATER_BUFFER_SIZE = 64 * 1024;
+
+    private final String label;
+
+    Compression(String label) {
+        this.label = label;
+    }
+
+    static Compression detect(Path path) throws IOException {
+        ByteBuffer magic = ByteBuffer.allocate(4);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (magic.hasRemaining() && channel.read(magic) > 0) {
+            }
+        }
+        return detect(magic.array(), magic.position());
+    }
+
+    static Compression detect(byte[] header, int length) {
+        if (length >= 2 && (header[0] & 0xFF) == 0x1F && (header[1] & 0xFF) == 0x8B) {
+            return GZIP;
+        }
+        if (length >= 4 && (header[0] & 0xFF) == 0x28 && (header[1] & 0xFF) == 0xB5
+                && (header[2] & 0xFF) == 0x2F && (header[3] & 0xFF) == 0xFD) {
+            return ZSTD;
+        }
+        if (length >= 3 && header[0] == 'B' && header[1] == 'Z' && header[2] == 'h') {
+            return BZIP2;
+        }
+        return NONE;
+    }
+
+    InputStream decode(InputStream in) throws IOException {
+        switch (this) {
+            case NONE:
+                return in;
+            case GZIP:
+                return new GZIPInputStream(in, INFLATER_BUFFER_SIZE);
+            default:
+                throw new IOException("Формат сжатия " + label + " не поддерживается: распакуйте файл или используйте gzip");
+        }
+    }
+
+    String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,110 @@
+package org.example;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public final class ConcurrentStatistics implements RecordHandler {
+    static final int MAX_STRIPES = 64;
+
+    private static final ThreadLocal<int[]> PROBE = ThreadLocal.withInitial(() -> new int[]{(int) Hashing.hash(Thread.currentThread().getId()) | 1});
+
+    private final Statistics prototype;
+    private final Stripe[] stripes;
+    private final int stripeMask;
+
+    public ConcurrentStatistics(Supplier<Statistics> factory) {
+        this(factory, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ConcurrentStatistics(Supplier<Statistics> factory, int stripes) {
+        if (stripes < 1 || stripes > MAX_STRIPES) {
+            throw new IllegalArgumentException("Число полос должно быть от 1 до " + MAX_STRIPES + ": " + stripes);
+        }
+        int count = Integer.highestOneBit(stripes) == stripes ? stripes : Integer.highestOneBit(stripes) << 1;
+        this.prototype = factory.get();
+        this.stripes = new Stripe[count];
+        this.stripeMask = count - 1;
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    public void addEntry(LogEntry entry) {
+        Stripe stripe = acquire();
+        try {
+            stripe.statistics().addEntry(entry);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public void addEntry(LogRecordView record) {
+        Stripe stripe = acquire();
+        try {
+            stripe.statistics().addEntry(record);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Override
+    public void handle(LogRecordView record) {
+        addEntry(record);
+    }
+
+    void addBatch(Consumer<RecordHandler> batch) {
+        Stripe stripe = acquire();
+        try {
+            Statistics statistics = stripe.statistics();
+            batch.accept(statistics::addEntry);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public Statistics snapshot() {
+        Statistics snapshot = prototype.newShard();
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                if (stripe.statistics != null) {
+                    snapshot.merge(stripe.statistics);
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return snapshot;
+    }
+
+    private Stripe acquire() {
+        int[] probe = PROBE.get();
+        for (int attempt = 0; attempt <= stripeMask; attempt++) {
+            Stripe stripe = stripes[probe[0] & stripeMask];
+            if (stripe.lock.tryLock()) {
+                return stripe;
+            }
+            int next = probe[0];
+            next ^= next << 13;
+            next ^= next >>> 17;
+            next ^= next << 5;
+            probe[0] = next;
+        }
+        Stripe stripe = stripes[probe[0] & stripeMask];
+        stripe.lock.lock();
+        return stripe;
+    }
+
+    private final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        Statistics statistics;
+
+        Statistics statistics() {
+            if (statistics == null) {
+                statistics = prototype.newShard();
+            }
+            return statistics;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.example;
+
+final class CountMinSketch {
+    private final int depth;
+    private final int width;
+    private final int mask;
+    private final long[] counts;
+    private long total;
+
+    CountMinSketch(double epsilon, double delta) {
+        int minWidth = (int) Math.ceil(Math.E / epsilon);
+        this.width = Integer.highestOneBit(Math.max(minWidth, 2) - 1) << 1;
+        this.depth = Math.max(1, (int) Math.ceil(Math.log(1 / delta)));
+        this.mask = width - 1;
+        this.counts = new long[depth * width];
+    }
+
+    long add(long hash, long count) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int index = row * width + ((h1 + row * h2) & mask);
+            counts[index] += count;
+            min = Math.min(min, counts[index]);
+        }
+        total += count;
+        return min;
+    }
+
+    long estimate(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counts[row * width + ((h1 + row * h2) & mask)]);
+        }
+        return min;
+    }
+
+    long getTotal() {
+        return total;
+    }
+
+    double epsilon() {
+        return Math.E / width;
+    }
+
+    double delta() {
+        return Math.exp(-depth);
+    }
+
+    void merge(CountMinSketch other) {
+        if (other.width != width || other.depth != depth) {
+            throw new IllegalArgumentException("Нельзя объединить Count-Min Sketch с разными размерами");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+    }
+}
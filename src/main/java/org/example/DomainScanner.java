@@ -0,0 +1,148 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+
+final class DomainScanner {
+    static final long NONE = -1;
+
+    private DomainScanner() {
+    }
+
+    static long hostBounds(CharSequence url, int start, int end) {
+        int hostStart = start + schemeLength(url, start, end);
+        int hostEnd = hostEnd(url, hostStart, end);
+        if (hostEnd == hostStart) {
+            if (hostStart == start) {
+                return NONE;
+            }
+            hostStart = start;
+            hostEnd = hostEnd(url, start, end);
+        }
+
+        if (hostEnd - hostStart >= 4 && isW(url.charAt(hostStart)) && isW(url.charAt(hostStart + 1))
+                && isW(url.charAt(hostStart + 2)) && url.charAt(hostStart + 3) == '.') {
+            hostStart += 4;
+        }
+        for (int i = hostStart + 1; i < hostEnd; i++) {
+            if (url.charAt(i) == ':') {
+                hostEnd = i;
+                break;
+            }
+        }
+        return hostEnd > hostStart ? pack(hostStart, hostEnd) : NONE;
+    }
+
+    static long hostBounds(ByteBuffer url, int start, int end) {
+        int hostStart = start + schemeLength(url, start, end);
+        int hostEnd = hostEnd(url, hostStart, end);
+        if (hostEnd == hostStart) {
+            if (hostStart == start) {
+                return NONE;
+            }
+            hostStart = start;
+            hostEnd = hostEnd(url, start, end);
+        }
+
+        if (hostEnd - hostStart >= 4 && isW(url.get(hostStart)) && isW(url.get(hostStart + 1))
+                && isW(url.get(hostStart + 2)) && url.get(hostStart + 3) == '.') {
+            hostStart += 4;
+        }
+        for (int i = hostStart + 1; i < hostEnd; i++) {
+            if (url.get(i) == ':') {
+                hostEnd = i;
+                break;
+            }
+        }
+        return hostEnd > hostStart ? pack(hostStart, hostEnd) : NONE;
+    }
+
+    static int start(long bounds) {
+        return (int) (bounds >>> 32);
+    }
+
+    static int end(long bounds) {
+        return (int) bounds;
+    }
+
+    static String lowerCase(CharSequence value, int start, int end) {
+        char[] chars = new char[end - start];
+        for (int i = start; i < end; i++) {
+            chars[i - start] = (char) lower(value.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    static boolean hasUpperCase(ByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b >= 'A' && b <= 'Z') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static int lower(int c) {
+        return c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+    }
+
+    private static int schemeLength(CharSequence url, int start, int end) {
+        int i = start;
+        if (end - i < 7 || lower(url.charAt(i)) != 'h' || lower(url.charAt(i + 1)) != 't'
+                || lower(url.charAt(i + 2)) != 't' || lower(url.charAt(i + 3)) != 'p') {
+            return 0;
+        }
+        i += 4;
+        if (lower(url.charAt(i)) == 's') {
+            i++;
+        }
+        if (end - i < 3 || url.charAt(i) != ':' || url.charAt(i + 1) != '/' || url.charAt(i + 2) != '/') {
+            return 0;
+        }
+        return i + 3 - start;
+    }
+
+    private static int schemeLength(ByteBuffer url, int start, int end) {
+        int i = start;
+        if (end - i < 7 || lower(url.get(i)) != 'h' || lower(url.get(i + 1)) != 't'
+                || lower(url.get(i + 2)) != 't' || lower(url.get(i + 3)) != 'p') {
+            return 0;
+        }
+        i += 4;
+        if (lower(url.get(i)) == 's') {
+            i++;
+        }
+        if (end - i < 3 || url.get(i) != ':' || url.get(i + 1) != '/' || url.get(i + 2) != '/') {
+            return 0;
+        }
+        return i + 3 - start;
+    }
+
+    private static int hostEnd(CharSequence url, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = url.charAt(i);
+            if (c == '/' || c == '?' || c == '#') {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    private static int hostEnd(ByteBuffer url, int start, int end) {
+        for (int i = start; i < end; i++) {
+            byte b = url.get(i);
+            if (b == '/' || b == '?' || b == '#') {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    private static boolean isW(int c) {
+        return c == 'w' || c == 'W';
+    }
+
+    private static long pack(int start, int end) {
+        return (long) start << 32 | end;
+    }
+}
@@ -0,0 +1,70 @@
+package org.example;
+
+import java.util.Arrays;
+
+final class DurationHistogram {
+    private static final int[] EMPTY = new int[0];
+
+    private int[] counts = EMPTY;
+    private long count;
+    private long sum;
+    private long max;
+
+    void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        int index = LatencyHistogram.index(value);
+        if (index >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(index + 1, counts.length + (counts.length >> 1)));
+        }
+        counts[index]++;
+        count++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+    void merge(DurationHistogram other) {
+        if (other.counts.length > counts.length) {
+            counts = Arrays.copyOf(counts, other.counts.length);
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    long getMax() {
+        return max;
+    }
+
+    double getMean() {
+        return count == 0 ? 0.0 : (double) sum / count;
+    }
+
+    long percentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(LatencyHistogram.highestEquivalent(i), max);
+            }
+        }
+        return max;
+    }
+
+    LatencySummary summarize(String name) {
+        return new LatencySummary(name, count, getMean(), percentile(50), percentile(95), percentile(99), percentile(99.9), max);
+    }
+}
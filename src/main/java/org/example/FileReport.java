@@ -0,0 +1,49 @@
+package org.example;
+
+import java.nio.file.Path;
+
+public final class FileReport {
+    private final Path path;
+    private final long size;
+    private final long elapsedNanos;
+    private final int entryCount;
+    private final int errorRequests;
+    private final String failure;
+
+    FileReport(Path path, long size, long elapsedNanos, Statistics statistics, String failure) {
+        this.path = path;
+        this.size = size;
+        this.elapsedNanos = elapsedNanos;
+        this.entryCount = statistics == null ? 0 : statistics.getEntryCount();
+        this.errorRequests = statistics == null ? 0 : statistics.getErrorRequests();
+        this.failure = failure;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedNanos / 1_000_000;
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    public int getErrorRequests() {
+        return errorRequests;
+    }
+
+    public boolean isFailed() {
+        return failure != null;
+    }
+
+    public String getFailure() {
+        return failure;
+    }
+}
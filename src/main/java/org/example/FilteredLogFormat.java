@@ -0,0 +1,33 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+
+final class FilteredLogFormat implements LogFormat {
+    private final LogFormat format;
+    private final RecordFilter filter;
+    private final String spec;
+
+    FilteredLogFormat(LogFormat format, RecordFilter filter, String query) {
+        this.format = format;
+        this.filter = filter;
+        this.spec = format.getSpec() + " | " + query;
+    }
+
+    @Override
+    public boolean parse(ByteBuffer buffer, int start, int end, LogRecordView record) {
+        if (format == LogFormat.COMBINED) {
+            return ByteLogParser.parse(buffer, start, end, record, filter) && (filter.testUserAgent(record) || filteredOut(record));
+        }
+        return format.parse(buffer, start, end, record) && (filter.test(record) || filteredOut(record));
+    }
+
+    private static boolean filteredOut(LogRecordView record) {
+        record.filtered = true;
+        return false;
+    }
+
+    @Override
+    public String getSpec() {
+        return spec;
+    }
+}
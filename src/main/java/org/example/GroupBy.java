@@ -0,0 +1,97 @@
+package org.example;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+enum GroupBy {
+    ALL("all"),
+    STATUS("status"),
+    METHOD("method"),
+    PATH("path"),
+    IP("ip"),
+    REFERER("referer"),
+    MINUTE("minute"),
+    HOUR("hour"),
+    DAY("day"),
+    BROWSER("browser"),
+    OS("os"),
+    BOT("bot");
+
+    static final long NO_TIME = Long.MAX_VALUE;
+
+    private static final HttpMethod[] METHODS = HttpMethod.values();
+
+    private final String name;
+
+    GroupBy(String name) {
+        this.name = name;
+    }
+
+    static GroupBy forName(String name) {
+        for (GroupBy groupBy : values()) {
+            if (groupBy.name.equals(name)) {
+                return groupBy;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестное поле группировки: " + name);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    boolean isText() {
+        return this == PATH || this == IP || this == REFERER;
+    }
+
+    long key(LogRecordView record) {
+        long second = record.epochSecond;
+        switch (this) {
+            case STATUS:
+                return record.responseCode;
+            case METHOD:
+                return record.method.ordinal();
+            case MINUTE:
+                return second == TimestampDecoder.INVALID ? NO_TIME : Math.floorDiv(second, 60);
+            case HOUR:
+                return second == TimestampDecoder.INVALID ? NO_TIME : Math.floorDiv(second, 3600);
+            case DAY:
+                return second == TimestampDecoder.INVALID ? NO_TIME : Math.floorDiv(second, 86400);
+            case BROWSER:
+                return record.getUserAgent().getBrowserOrdinal();
+            case OS:
+                return record.getUserAgent().getOsOrdinal();
+            case BOT:
+                return record.getUserAgent().isBot() ? 1 : 0;
+            default:
+                return 0;
+        }
+    }
+
+    String label(long key) {
+        if (key == NO_TIME && (this == MINUTE || this == HOUR || this == DAY)) {
+            return "N/A";
+        }
+        switch (this) {
+            case ALL:
+                return "всего";
+            case METHOD:
+                return METHODS[(int) key].name();
+            case MINUTE:
+                return LocalDateTime.ofEpochSecond(key * 60, 0, ZoneOffset.UTC).toString();
+            case HOUR:
+                return LocalDateTime.ofEpochSecond(key * 3600, 0, ZoneOffset.UTC).toString();
+            case DAY:
+                return LocalDate.ofEpochDay(key).toString();
+            case BROWSER:
+                return UserAgentClassifier.BROWSERS[(int) key];
+            case OS:
+                return UserAgentClassifier.OS_TYPES[(int) key];
+            case BOT:
+                return key == 1 ? "боты" : "пользователи";
+            default:
+                return Long.toString(key);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package org.example;
+
+final class Hashing {
+    private Hashing() {
+    }
+
+    static long hash(CharSequence value) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    static long hash(long seed, byte[] bytes, int length) {
+        long h = seed ^ 0xCBF29CE484222325L;
+        for (int i = 0; i < length; i++) {
+            h = (h ^ (bytes[i] & 0xFF)) * 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    static long hash(long value) {
+        return mix(value ^ 0x9E3779B97F4A7C15L);
+    }
+
+    static long hash(long high, long low) {
+        return mix(high * 0xC2B2AE3D27D4EB4FL + mix(low));
+    }
+
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
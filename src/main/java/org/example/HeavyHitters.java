@@ -0,0 +1,106 @@
+package org.example;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+final class HeavyHitters {
+    private final int capacity;
+    private final long[] hashes;
+    private final long[] counts;
+    private final String[] labels;
+    private int size;
+    private int minIndex;
+
+    HeavyHitters(int capacity) {
+        this.capacity = capacity;
+        this.hashes = new long[capacity];
+        this.counts = new long[capacity];
+        this.labels = new String[capacity];
+    }
+
+    int offer(long hash, long estimate) {
+        if (size == capacity && estimate < counts[minIndex]) {
+            return -1;
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (hashes[i] == hash) {
+                counts[i] = estimate;
+                if (i == minIndex) {
+                    updateMin();
+                }
+                return -1;
+            }
+        }
+
+        int slot;
+        if (size < capacity) {
+            slot = size++;
+        } else if (estimate > counts[minIndex]) {
+            slot = minIndex;
+        } else {
+            return -1;
+        }
+
+        hashes[slot] = hash;
+        counts[slot] = estimate;
+        labels[slot] = null;
+        updateMin();
+        return slot;
+    }
+
+    void setLabel(int slot, String label) {
+        labels[slot] = label;
+    }
+
+    void merge(HeavyHitters other, CountMinSketch sketch) {
+        for (int i = 0; i < size; i++) {
+            counts[i] = sketch.estimate(hashes[i]);
+        }
+        updateMin();
+        for (int i = 0; i < other.size; i++) {
+            int slot = offer(other.hashes[i], sketch.estimate(other.hashes[i]));
+            if (slot >= 0) {
+                labels[slot] = other.labels[i];
+            }
+        }
+    }
+
+    String topLabel() {
+        int best = topIndex();
+        return best < 0 ? null : labels[best];
+    }
+
+    long topCount() {
+        int best = topIndex();
+        return best < 0 ? 0 : counts[best];
+    }
+
+    Map<String, Long> snapshot() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            result.put(labels[i], counts[i]);
+        }
+        return result;
+    }
+
+    private int topIndex() {
+        int best = -1;
+        for (int i = 0; i < size; i++) {
+            if (best < 0 || counts[i] > counts[best]
+                    || (counts[i] == counts[best] && labels[i].compareTo(labels[best]) < 0)) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private void updateMin() {
+        minIndex = 0;
+        for (int i = 1; i < size; i++) {
+            if (counts[i] < counts[minIndex]) {
+                minIndex = i;
+            }
+        }
+    }
+}
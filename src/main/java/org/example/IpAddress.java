@@ -0,0 +1,224 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+
+final class IpAddress {
+    static final int INVALID = 0;
+    static final int V4 = 1;
+    static final int V6 = 2;
+
+    private static final int MAX_TEXT_LENGTH = 45;
+
+    private final byte[] text = new byte[MAX_TEXT_LENGTH];
+    private final int[] groups = new int[8];
+
+    int kind;
+    long high;
+    long low;
+
+    boolean parse(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        if (length <= 0 || length > MAX_TEXT_LENGTH) {
+            kind = INVALID;
+            return false;
+        }
+        buffer.get(start, text, 0, length);
+        return parseText(length);
+    }
+
+    boolean parse(CharSequence value) {
+        int length = value.length();
+        if (length == 0 || length > MAX_TEXT_LENGTH) {
+            kind = INVALID;
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            text[i] = c < 0x80 ? (byte) c : 0;
+        }
+        return parseText(length);
+    }
+
+    private boolean parseText(int length) {
+        high = 0;
+        low = 0;
+        long v4 = parseV4(0, length);
+        if (v4 >= 0) {
+            kind = V4;
+            low = v4;
+            return true;
+        }
+        kind = parseV6(length) ? V6 : INVALID;
+        return kind != INVALID;
+    }
+
+    private long parseV4(int start, int end) {
+        long value = 0;
+        int parts = 0;
+        int i = start;
+        while (i < end) {
+            int octet = 0;
+            int digits = 0;
+            while (i < end && text[i] >= '0' && text[i] <= '9' && digits < 3) {
+                octet = octet * 10 + (text[i] - '0');
+                digits++;
+                i++;
+            }
+            if (digits == 0 || octet > 255) {
+                return -1;
+            }
+            value = value << 8 | octet;
+            parts++;
+            if (i < end) {
+                if (text[i] != '.' || parts == 4) {
+                    return -1;
+                }
+                i++;
+                if (i == end) {
+                    return -1;
+                }
+            }
+        }
+        return parts == 4 ? value : -1;
+    }
+
+    private boolean parseV6(int length) {
+        int count = 0;
+        int compressedAt = -1;
+        int i = 0;
+
+        if (length >= 2 && text[0] == ':' && text[1] == ':') {
+            compressedAt = 0;
+            i = 2;
+        }
+
+        while (i < length) {
+            int groupStart = i;
+            int group = 0;
+            int digits = 0;
+            int digit;
+            while (i < length && (digit = hexDigit(text[i])) >= 0 && digits < 4) {
+                group = group << 4 | digit;
+                digits++;
+                i++;
+            }
+
+            if (i < length && text[i] == '.') {
+                long v4 = parseV4(groupStart, length);
+                if (v4 < 0 || count > 6) {
+                    return false;
+                }
+                groups[count++] = (int) (v4 >>> 16);
+                groups[count++] = (int) (v4 & 0xFFFF);
+                i = length;
+                break;
+            }
+
+            if (digits == 0 || count == 8) {
+                return false;
+            }
+            groups[count++] = group;
+
+            if (i == length) {
+                break;
+            }
+            if (text[i] != ':') {
+                return false;
+            }
+            i++;
+            if (i < length && text[i] == ':') {
+                if (compressedAt >= 0) {
+                    return false;
+                }
+                compressedAt = count;
+                i++;
+            } else if (i == length) {
+                return false;
+            }
+        }
+
+        if (compressedAt < 0 ? count != 8 : count > 7) {
+            return false;
+        }
+
+        int missing = 8 - count;
+        long hi = 0;
+        long lo = 0;
+        int index = 0;
+        for (int g = 0; g < 8; g++) {
+            int value;
+            if (compressedAt >= 0 && g >= compressedAt && g < compressedAt + missing) {
+                value = 0;
+            } else {
+                value = groups[index++];
+            }
+            if (g < 4) {
+                hi = hi << 16 | value;
+            } else {
+                lo = lo << 16 | value;
+            }
+        }
+        high = hi;
+        low = lo;
+        return true;
+    }
+
+    private static int hexDigit(byte b) {
+        if (b >= '0' && b <= '9') {
+            return b - '0';
+        } else if (b >= 'a' && b <= 'f') {
+            return b - 'a' + 10;
+        } else if (b >= 'A' && b <= 'F') {
+            return b - 'A' + 10;
+        }
+        return -1;
+    }
+
+    static String formatV4(long address) {
+        return ((address >>> 24) & 0xFF) + "." + ((address >>> 16) & 0xFF) + "."
+                + ((address >>> 8) & 0xFF) + "." + (address & 0xFF);
+    }
+
+    static String formatV6(long high, long low) {
+        if (high == 0 && (low >>> 32) == 0xFFFF) {
+            return "::ffff:" + formatV4(low & 0xFFFFFFFFL);
+        }
+
+        int[] words = new int[8];
+        for (int g = 0; g < 4; g++) {
+            words[g] = (int) (high >>> (48 - 16 * g)) & 0xFFFF;
+            words[g + 4] = (int) (low >>> (48 - 16 * g)) & 0xFFFF;
+        }
+
+        int bestStart = -1;
+        int bestLength = 1;
+        for (int g = 0; g < 8; ) {
+            if (words[g] != 0) {
+                g++;
+                continue;
+            }
+            int runStart = g;
+            while (g < 8 && words[g] == 0) {
+                g++;
+            }
+            if (g - runStart > bestLength) {
+                bestStart = runStart;
+                bestLength = g - runStart;
+            }
+        }
+
+        StringBuilder result = new StringBuilder(39);
+        for (int g = 0; g < 8; g++) {
+            if (g == bestStart) {
+                result.append("::");
+                g += bestLength - 1;
+                continue;
+            }
+            if (result.length() > 0 && result.charAt(result.length() - 1) != ':') {
+                result.append(':');
+            }
+            result.append(Integer.toHexString(words[g]));
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,179 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+final class JsonLogFormat implements LogFormat {
+    private final byte[][][] keysByLength;
+    private final LogField[][] fieldsByLength;
+
+    JsonLogFormat() {
+        int maxLength = 0;
+        for (LogField field : LogField.values()) {
+            for (String name : field.getNames()) {
+                maxLength = Math.max(maxLength, name.length());
+            }
+        }
+
+        keysByLength = new byte[maxLength + 1][0][];
+        fieldsByLength = new LogField[maxLength + 1][0];
+        for (LogField field : LogField.values()) {
+            for (String name : field.getNames()) {
+                byte[] key = name.getBytes(StandardCharsets.UTF_8);
+                int length = key.length;
+                keysByLength[length] = Arrays.copyOf(keysByLength[length], keysByLength[length].length + 1);
+                keysByLength[length][keysByLength[length].length - 1] = key;
+                fieldsByLength[length] = Arrays.copyOf(fieldsByLength[length], fieldsByLength[length].length + 1);
+                fieldsByLength[length][fieldsByLength[length].length - 1] = field;
+            }
+        }
+    }
+
+    @Override
+    public boolean parse(ByteBuffer buffer, int start, int end, LogRecordView record) {
+        while (start < end && buffer.get(start) <= ' ') {
+            start++;
+        }
+        while (end > start && buffer.get(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return false;
+        }
+        if (buffer.get(start) != '{') {
+            return reject();
+        }
+
+        record.reset(buffer);
+        int position = start + 1;
+        while (true) {
+            position = skipWhitespace(buffer, position, end);
+            if (position >= end) {
+                return reject();
+            }
+
+            byte b = buffer.get(position);
+            if (b == '}') {
+                return true;
+            }
+            if (b == ',') {
+                position++;
+                continue;
+            }
+            if (b != '"') {
+                return reject();
+            }
+
+            int keyEnd = stringEnd(buffer, position + 1, end);
+            if (keyEnd < 0) {
+                return reject();
+            }
+            LogField field = lookup(buffer, position + 1, keyEnd);
+
+            position = skipWhitespace(buffer, keyEnd + 1, end);
+            if (position >= end || buffer.get(position) != ':') {
+                return reject();
+            }
+            position = skipWhitespace(buffer, position + 1, end);
+            if (position >= end) {
+                return reject();
+            }
+
+            b = buffer.get(position);
+            if (b == '"') {
+                int valueEnd = stringEnd(buffer, position + 1, end);
+                if (valueEnd < 0) {
+                    return reject();
+                }
+                field.extract(buffer, position + 1, valueEnd, record);
+                position = valueEnd + 1;
+            } else if (b == '{' || b == '[') {
+                position = skipNested(buffer, position, end);
+                if (position < 0) {
+                    return reject();
+                }
+            } else {
+                int valueEnd = position;
+                while (valueEnd < end && (b = buffer.get(valueEnd)) != ',' && b != '}' && b > ' ') {
+                    valueEnd++;
+                }
+                if (!isNull(buffer, position, valueEnd)) {
+                    field.extract(buffer, position, valueEnd, record);
+                }
+                position = valueEnd;
+            }
+        }
+    }
+
+    @Override
+    public String getSpec() {
+        return "json";
+    }
+
+    private static boolean reject() {
+        return false;
+    }
+
+    private LogField lookup(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        if (length >= keysByLength.length) {
+            return LogField.SKIP;
+        }
+
+        byte[][] keys = keysByLength[length];
+        for (int k = 0; k < keys.length; k++) {
+            byte[] key = keys[k];
+            int i = 0;
+            while (i < length && buffer.get(start + i) == key[i]) {
+                i++;
+            }
+            if (i == length) {
+                return fieldsByLength[length][k];
+            }
+        }
+        return LogField.SKIP;
+    }
+
+    private static int stringEnd(ByteBuffer buffer, int from, int end) {
+        for (int i = from; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == '\\') {
+                i++;
+            } else if (b == '"') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipNested(ByteBuffer buffer, int from, int end) {
+        int depth = 0;
+        for (int i = from; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == '"') {
+                i = stringEnd(buffer, i + 1, end);
+                if (i < 0) {
+                    return -1;
+                }
+            } else if (b == '{' || b == '[') {
+                depth++;
+            } else if ((b == '}' || b == ']') && --depth == 0) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isNull(ByteBuffer buffer, int start, int end) {
+        return end - start == 4 && buffer.get(start) == 'n' && buffer.get(start + 1) == 'u'
+                && buffer.get(start + 2) == 'l' && buffer.get(start + 3) == 'l';
+    }
+
+    private static int skipWhitespace(ByteBuffer buffer, int from, int end) {
+        while (from < end && buffer.get(from) <= ' ') {
+            from++;
+        }
+        return from;
+    }
+}
@@ -0,0 +1,63 @@
+package org.example;
+
+public final class LatencySummary {
+    private final String name;
+    private final long count;
+    private final double meanMicros;
+    private final long p50Micros;
+    private final long p95Micros;
+    private final long p99Micros;
+    private final long p999Micros;
+    private final long maxMicros;
+
+    LatencySummary(String name, long count, double meanMicros, long p50Micros, long p95Micros,
+                   long p99Micros, long p999Micros, long maxMicros) {
+        this.name = name;
+        this.count = count;
+        this.meanMicros = meanMicros;
+        this.p50Micros = p50Micros;
+        this.p95Micros = p95Micros;
+        this.p99Micros = p99Micros;
+        this.p999Micros = p999Micros;
+        this.maxMicros = maxMicros;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMeanMicros() {
+        return meanMicros;
+    }
+
+    public long getP50Micros() {
+        return p50Micros;
+    }
+
+    public long getP95Micros() {
+        return p95Micros;
+    }
+
+    public long getP99Micros() {
+        return p99Micros;
+    }
+
+    public long getP999Micros() {
+        return p999Micros;
+    }
+
+    public long getMaxMicros() {
+        return maxMicros;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %,d запросов, среднее %.1f мс, p50 %.1f мс, p95 %.1f мс, p99 %.1f мс, p99.9 %.1f мс, макс %.1f мс",
+                name, count, meanMicros / 1000, p50Micros / 1000.0, p95Micros / 1000.0, p99Micros / 1000.0,
+                p999Micros / 1000.0, maxMicros / 1000.0);
+    }
+}
@@ -0,0 +1,174 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+final class LatencyTable {
+    static final String OTHER_ENDPOINTS = "(прочие)";
+
+    private static final int MAX_STATUS = 600;
+    private static final int MIN_HEX_ID_LENGTH = 16;
+    private static final byte[] ID_SEGMENT = "{id}".getBytes(StandardCharsets.US_ASCII);
+    private static final Comparator<LatencySummary> SLOWEST_FIRST = Comparator.comparingLong(LatencySummary::getP99Micros).reversed()
+            .thenComparing(Comparator.comparingLong(LatencySummary::getCount).reversed())
+            .thenComparing(LatencySummary::getName);
+
+    private final int maxEndpoints;
+    private final ByteDictionary endpoints = new ByteDictionary();
+    private DurationHistogram[] byEndpoint = new DurationHistogram[64];
+    private final DurationHistogram otherEndpoints = new DurationHistogram();
+    private final DurationHistogram[] byStatus = new DurationHistogram[MAX_STATUS];
+    private final DurationHistogram total = new DurationHistogram();
+    private final ByteBuffer normalized = ByteBuffer.allocate(MappedLogReader.MAX_LINE_LENGTH * ID_SEGMENT.length);
+
+    LatencyTable(int maxEndpoints) {
+        this.maxEndpoints = maxEndpoints;
+    }
+
+    void add(ByteBuffer buffer, int pathStart, int pathEnd, int responseCode, long micros) {
+        int end = pathEnd;
+        for (int i = pathStart; i < pathEnd; i++) {
+            if (buffer.get(i) == '?') {
+                end = i;
+                break;
+            }
+        }
+        if (normalize(buffer, pathStart, end)) {
+            buffer = normalized;
+            pathStart = 0;
+            end = normalized.position();
+        }
+        int id = endpoints.getSize() < maxEndpoints ? endpoints.intern(buffer, pathStart, end) : endpoints.find(buffer, pathStart, end);
+        add(id, responseCode, micros);
+    }
+
+    void add(String path, int responseCode, long micros) {
+        byte[] bytes = path.getBytes(StandardCharsets.UTF_8);
+        add(ByteBuffer.wrap(bytes), 0, bytes.length, responseCode, micros);
+    }
+
+    private boolean normalize(ByteBuffer buffer, int start, int end) {
+        normalized.clear();
+        boolean changed = false;
+        int segmentStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i < end && buffer.get(i) != '/') {
+                continue;
+            }
+            if (isId(buffer, segmentStart, i)) {
+                if (!changed) {
+                    for (int j = start; j < segmentStart; j++) {
+                        normalized.put(buffer.get(j));
+                    }
+                    changed = true;
+                }
+                normalized.put(ID_SEGMENT);
+            } else if (changed) {
+                for (int j = segmentStart; j < i; j++) {
+                    normalized.put(buffer.get(j));
+                }
+            }
+            if (changed && i < end) {
+                normalized.put((byte) '/');
+            }
+            segmentStart = i + 1;
+        }
+        return changed;
+    }
+
+    private static boolean isId(ByteBuffer buffer, int start, int end) {
+        if (start == end) {
+            return false;
+        }
+        boolean digits = true;
+        boolean hex = end - start >= MIN_HEX_ID_LENGTH;
+        boolean anyDigit = false;
+        for (int i = start; i < end && (digits || hex); i++) {
+            byte b = buffer.get(i);
+            boolean digit = b >= '0' && b <= '9';
+            anyDigit |= digit;
+            digits &= digit;
+            hex &= digit || (b >= 'a' && b <= 'f') || (b >= 'A' && b <= 'F') || b == '-';
+        }
+        return digits || (hex && anyDigit);
+    }
+
+    private void add(int id, int responseCode, long micros) {
+        endpoint(id).record(micros);
+        if (responseCode >= 0 && responseCode < MAX_STATUS) {
+            status(responseCode).record(micros);
+        }
+        total.record(micros);
+    }
+
+    void merge(LatencyTable other) {
+        for (int otherId = 0; otherId < other.endpoints.getSize(); otherId++) {
+            int id = endpoints.getSize() < maxEndpoints ? endpoints.intern(other.endpoints, otherId) : endpoints.find(other.endpoints, otherId);
+            endpoint(id).merge(other.byEndpoint[otherId]);
+        }
+        otherEndpoints.merge(other.otherEndpoints);
+        for (int code = 0; code < MAX_STATUS; code++) {
+            if (other.byStatus[code] != null) {
+                status(code).merge(other.byStatus[code]);
+            }
+        }
+        total.merge(other.total);
+    }
+
+    private DurationHistogram endpoint(int id) {
+        if (id == ByteDictionary.MISSING) {
+            return otherEndpoints;
+        }
+        if (id >= byEndpoint.length) {
+            byEndpoint = Arrays.copyOf(byEndpoint, Math.max(byEndpoint.length << 1, id + 1));
+        }
+        DurationHistogram histogram = byEndpoint[id];
+        if (histogram == null) {
+            histogram = byEndpoint[id] = new DurationHistogram();
+        }
+        return histogram;
+    }
+
+    private DurationHistogram status(int code) {
+        DurationHistogram histogram = byStatus[code];
+        if (histogram == null) {
+            histogram = byStatus[code] = new DurationHistogram();
+        }
+        return histogram;
+    }
+
+    boolean isEmpty() {
+        return total.getCount() == 0;
+    }
+
+    LatencySummary getTotal(String name) {
+        return total.summarize(name);
+    }
+
+    List<LatencySummary> byEndpoint() {
+        List<LatencySummary> result = new ArrayList<>(endpoints.getSize() + 1);
+        for (int id = 0; id < endpoints.getSize(); id++) {
+            result.add(byEndpoint[id].summarize(endpoints.get(id)));
+        }
+        if (otherEndpoints.getCount() > 0) {
+            result.add(otherEndpoints.summarize(OTHER_ENDPOINTS));
+        }
+        result.sort(SLOWEST_FIRST);
+        return Collections.unmodifiableList(result);
+    }
+
+    List<LatencySummary> byStatus() {
+        List<LatencySummary> result = new ArrayList<>();
+        for (int code = 0; code < MAX_STATUS; code++) {
+            if (byStatus[code] != null) {
+                result.add(byStatus[code].summarize(Integer.toString(code)));
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+}
@@ -0,0 +1,9 @@
+package org.example;
+
+class LineTooLongException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public LineTooLongException(String message) {
+        super(message);
+    }
+}
@@ -1,28 +1,37 @@
 package org.example;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.time.ZoneOffset;
 
 public class LogEntry {
+    private static final ThreadLocal<TimestampDecoder> TIMESTAMP_DECODER = ThreadLocal.withInitial(TimestampDecoder::new);
+
     private final String ipAddress;
     private final LocalDateTime time;
+    private final long epochSecond;
     private final HttpMethod method;
     private final String path;
     private final int responseCode;
     private final int responseSize;
     private final String referer;
     private final UserAgent userAgent;
+    private final long requestTimeMicros;
+    private final long upstreamTimeMicros;
 
     public LogEntry(String logLine) {
         String ip = "0.0.0.0";
-        LocalDateTime dt = LocalDateTime.now();
+        LocalDateTime dt = null;
+        long epoch = TimestampDecoder.INVALID;
         HttpMethod m = HttpMethod.UNKNOWN;
         String p = "/";
         int code = 0;
         int size = 0;
         String ref = null;
-        UserAgent ua = new UserAgent("");
+        UserAgent ua = UserAgent.of("");
+        long requestTime = LogRecordView.NO_DURATION;
+        long upstreamTime = LogRecordView.NO_DURATION;
 
         try {
 
@@ -36,13 +45,10 @@ public class LogEntry {
             int dateStart = cleanLine.indexOf('[');
             int dateEnd = cleanLine.indexOf(']', dateStart);
             if (dateStart > 0 && dateEnd > dateStart) {
-                String dateStr = cleanLine.substring(dateStart + 1, dateEnd);
-                String[] dateParts = dateStr.split("\\s+");
-                if (dateParts.length > 0) {
-                    try {
-                        dt = LocalDateTime.parse(dateParts[0], DateTimeFormatter.ofPattern("dd/MMM/yyyy:HH:mm:ss"));
-                    } catch (DateTimeParseException e) {
-                    }
+                TimestampDecoder decoder = TIMESTAMP_DECODER.get();
+                epoch = decoder.decode(cleanLine, dateStart + 1, dateEnd);
+                if (epoch != TimestampDecoder.INVALID) {
+                    dt = LocalDateTime.ofEpochSecond(epoch, 0, ZoneOffset.ofTotalSeconds(decoder.getOffsetSeconds()));
                 }
             }
 
@@ -88,22 +94,53 @@ public class LogEntry {
             if (uaStart > 0 && uaEnd > uaStart) {
                 String uaStr = cleanLine.substring(uaStart + 1, uaEnd);
                 if (!uaStr.equals("-")) {
-                    ua = new UserAgent(uaStr);
+                    ua = UserAgent.of(uaStr);
+                }
+
+                String[] timings = cleanLine.substring(uaEnd + 1).trim().split("\\s+", 2);
+                if (!timings[0].isEmpty()) {
+                    requestTime = parseMicros(timings[0], false);
+                    if (timings.length > 1) {
+                        upstreamTime = parseMicros(timings[1], true);
+                    }
                 }
             }
 
         } catch (Exception e) {
+            PipelineMetrics.global().recordParseFailure();
             System.err.println("Ошибка при парсинге строки: " + e.getMessage());
         }
 
         this.ipAddress = ip;
         this.time = dt;
+        this.epochSecond = epoch;
         this.method = m;
         this.path = p;
         this.responseCode = code;
         this.responseSize = size;
         this.referer = ref;
         this.userAgent = ua;
+        this.requestTimeMicros = requestTime;
+        this.upstreamTimeMicros = upstreamTime;
+    }
+
+    LogEntry(LogRecordView record) {
+        this.ipAddress = record.getIpAddress();
+        this.time = record.getTime();
+        this.epochSecond = record.getEpochSecond();
+        this.method = record.getMethod();
+        this.path = record.getPath();
+        this.responseCode = record.getResponseCode();
+        this.responseSize = record.getResponseSize();
+        this.referer = record.getReferer();
+        this.userAgent = record.getUserAgent();
+        this.requestTimeMicros = record.getRequestTimeMicros();
+        this.upstreamTimeMicros = record.getUpstreamTimeMicros();
+    }
+
+    private static long parseMicros(String value, boolean sum) {
+        ByteBuffer buffer = ByteBuffer.wrap(value.getBytes(StandardCharsets.US_ASCII));
+        return sum ? LogField.parseMicrosSum(buffer, 0, buffer.limit()) : LogField.parseMicros(buffer, 0, buffer.limit());
     }
 
     private HttpMethod parseHttpMethod(String methodStr) {
@@ -122,6 +159,10 @@ public class LogEntry {
         return time;
     }
 
+    public long getEpochSecond() {
+        return epochSecond;
+    }
+
     public HttpMethod getMethod() {
         return method;
     }
@@ -146,6 +187,14 @@ public class LogEntry {
         return userAgent;
     }
 
+    public long getRequestTimeMicros() {
+        return requestTimeMicros;
+    }
+
+    public long getUpstreamTimeMicros() {
+        return upstreamTimeMicros;
+    }
+
     @Override
     public String toString() {
         return String.format("IP: %s, Time: %s, Method: %s, Size: %d", ipAddress, time, method, responseSize);
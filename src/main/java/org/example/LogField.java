@@ -0,0 +1,155 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+
+enum LogField {
+    SKIP,
+    REMOTE_ADDR("remote_addr", "realip_remote_addr", "client_ip", "remote_ip", "ip"),
+    TIME_LOCAL("time_local"),
+    TIME_ISO8601("time_iso8601", "@timestamp", "timestamp", "time"),
+    MSEC("msec"),
+    REQUEST("request"),
+    REQUEST_METHOD("request_method", "method"),
+    REQUEST_URI("request_uri", "uri", "path"),
+    STATUS("status"),
+    BODY_BYTES_SENT("body_bytes_sent", "bytes_sent", "bytes", "size"),
+    HTTP_REFERER("http_referer", "referer", "referrer"),
+    HTTP_USER_AGENT("http_user_agent", "user_agent", "agent"),
+    REQUEST_TIME("request_time"),
+    UPSTREAM_RESPONSE_TIME("upstream_response_time");
+
+    private static final LogField[] FIELDS = values();
+
+    private final String[] names;
+
+    LogField(String... names) {
+        this.names = names;
+    }
+
+    String[] getNames() {
+        return names;
+    }
+
+    static LogField forName(String name) {
+        for (LogField field : FIELDS) {
+            for (String candidate : field.names) {
+                if (candidate.equals(name)) {
+                    return field;
+                }
+            }
+        }
+        return SKIP;
+    }
+
+    void extract(ByteBuffer buffer, int start, int end, LogRecordView record) {
+        if (start >= end || ByteLogParser.isDash(buffer, start, end)) {
+            return;
+        }
+
+        switch (this) {
+            case REMOTE_ADDR:
+                record.ipStart = start;
+                record.ipEnd = end;
+                break;
+            case TIME_LOCAL:
+                record.epochSecond = record.timestampDecoder.decode(buffer, start, end);
+                record.offsetSeconds = record.timestampDecoder.getOffsetSeconds();
+                break;
+            case TIME_ISO8601:
+                record.epochSecond = record.timestampDecoder.decodeIso8601(buffer, start, end);
+                record.offsetSeconds = record.timestampDecoder.getOffsetSeconds();
+                break;
+            case MSEC:
+                int point = ByteLogParser.indexOf(buffer, '.', start, end);
+                int seconds = ByteLogParser.parseInt(buffer, start, point < 0 ? end : point);
+                record.epochSecond = seconds > 0 ? seconds : TimestampDecoder.INVALID;
+                record.offsetSeconds = 0;
+                break;
+            case REQUEST:
+                ByteLogParser.parseRequest(buffer, start, end, record);
+                break;
+            case REQUEST_METHOD:
+                record.method = ByteLogParser.parseHttpMethod(buffer, start, end);
+                break;
+            case REQUEST_URI:
+                record.pathStart = start;
+                record.pathEnd = end;
+                break;
+            case STATUS:
+                record.responseCode = ByteLogParser.parseInt(buffer, start, end);
+                break;
+            case BODY_BYTES_SENT:
+                record.responseSize = ByteLogParser.parseInt(buffer, start, end);
+                break;
+            case HTTP_REFERER:
+                record.refererStart = start;
+                record.refererEnd = end;
+                break;
+            case HTTP_USER_AGENT:
+                record.userAgentStart = start;
+                record.userAgentEnd = end;
+                break;
+            case REQUEST_TIME:
+                record.requestTimeMicros = parseMicros(buffer, start, end);
+                break;
+            case UPSTREAM_RESPONSE_TIME:
+                record.upstreamTimeMicros = parseMicrosSum(buffer, start, end);
+                break;
+            default:
+                break;
+        }
+    }
+
+    static long parseMicrosSum(ByteBuffer buffer, int start, int end) {
+        long total = LogRecordView.NO_DURATION;
+        int from = start;
+        while (from < end) {
+            int to = from;
+            while (to < end && buffer.get(to) != ',' && buffer.get(to) != ':') {
+                to++;
+            }
+            long micros = parseMicros(buffer, from, to);
+            if (micros != LogRecordView.NO_DURATION) {
+                total = total == LogRecordView.NO_DURATION ? micros : total + micros;
+            }
+            from = to + 1;
+        }
+        return total;
+    }
+
+    static long parseMicros(ByteBuffer buffer, int start, int end) {
+        while (start < end && buffer.get(start) == ' ') {
+            start++;
+        }
+        while (end > start && buffer.get(end - 1) == ' ') {
+            end--;
+        }
+
+        long micros = 0;
+        int scale = -1;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == '.' && scale < 0) {
+                scale = 0;
+                continue;
+            }
+            int digit = b - '0';
+            if (digit < 0 || digit > 9) {
+                return LogRecordView.NO_DURATION;
+            }
+            if (scale < 0) {
+                micros = micros * 10 + digit;
+            } else if (scale < 6) {
+                micros = micros * 10 + digit;
+                scale++;
+            }
+        }
+        if (start == end) {
+            return LogRecordView.NO_DURATION;
+        }
+        for (int s = Math.max(scale, 0); s < 6; s++) {
+            micros *= 10;
+        }
+        return micros;
+    }
+}
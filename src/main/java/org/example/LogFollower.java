@@ -0,0 +1,214 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public class LogFollower implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final long POLL_MILLIS = 500;
+
+    private final Path path;
+    private final Supplier<Statistics> factory;
+    private final long snapshotIntervalNanos;
+    private final Consumer<Statistics> snapshotListener;
+    private final boolean fromEnd;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final LogRecordView record;
+    private final PipelineMetrics metrics = PipelineMetrics.global();
+    private final RecordHandler handler = view -> this.current.addEntry(view);
+
+    private volatile boolean running = true;
+    private FileChannel channel;
+    private Object fileKey;
+    private long position;
+    private boolean skippingLongLine;
+    private boolean opened;
+    private long lineNumber;
+    private Statistics current;
+    private Statistics cumulative;
+
+    public LogFollower(Path path, Supplier<Statistics> factory, Duration snapshotInterval,
+                       Consumer<Statistics> snapshotListener, boolean fromEnd) {
+        this(path, LogFormat.COMBINED, factory, snapshotInterval, snapshotListener, fromEnd);
+    }
+
+    public LogFollower(Path path, LogFormat format, Supplier<Statistics> factory, Duration snapshotInterval,
+                       Consumer<Statistics> snapshotListener, boolean fromEnd) {
+        this.path = path;
+        this.record = new LogRecordView(format);
+        this.factory = factory;
+        this.snapshotIntervalNanos = snapshotInterval.toNanos();
+        this.snapshotListener = snapshotListener;
+        this.fromEnd = fromEnd;
+    }
+
+    public void run() throws IOException, InterruptedException {
+        cumulative = factory.get();
+        current = cumulative.newShard();
+        ExecutorService snapshots = Executors.newSingleThreadExecutor();
+
+        try (WatchService watcher = path.getFileSystem().newWatchService()) {
+            path.toAbsolutePath().getParent().register(watcher,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            long nextSnapshot = System.nanoTime() + snapshotIntervalNanos;
+
+            while (running) {
+                readAvailable();
+                checkRotation();
+
+                long now = System.nanoTime();
+                if (now >= nextSnapshot) {
+                    publishSnapshot(snapshots);
+                    nextSnapshot = now + snapshotIntervalNanos;
+                }
+
+                long waitMillis = Math.min(POLL_MILLIS, TimeUnit.NANOSECONDS.toMillis(nextSnapshot - now));
+                WatchKey key = watcher.poll(Math.max(1, waitMillis), TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    key.pollEvents();
+                    key.reset();
+                }
+            }
+
+            publishSnapshot(snapshots);
+        } finally {
+            snapshots.shutdown();
+            snapshots.awaitTermination(1, TimeUnit.MINUTES);
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+    }
+
+    private void publishSnapshot(ExecutorService snapshots) {
+        Statistics delta = current;
+        current = cumulative.newShard();
+        snapshots.execute(() -> {
+            cumulative.merge(delta);
+            snapshotListener.accept(cumulative);
+        });
+    }
+
+    private void readAvailable() throws IOException {
+        if (channel == null && !open()) {
+            return;
+        }
+
+        int read;
+        long readStart = System.nanoTime();
+        while ((read = channel.read(buffer, position)) > 0) {
+            metrics.recordRead(read, System.nanoTime() - readStart);
+            position += read;
+            buffer.flip();
+            processLines();
+            readStart = System.nanoTime();
+        }
+    }
+
+    private boolean open() throws IOException {
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+
+        fileKey = Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+        position = fromEnd && !opened ? channel.size() : 0;
+        opened = true;
+        buffer.clear();
+        skippingLongLine = false;
+        return true;
+    }
+
+    private void checkRotation() throws IOException {
+        if (channel == null) {
+            return;
+        }
+
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return;
+        }
+
+        Object key = attributes.fileKey();
+        if (fileKey != null && key != null && !key.equals(fileKey)) {
+            readAvailable();
+            flushPartialLine();
+            channel.close();
+            channel = null;
+            open();
+        } else if (attributes.size() < position) {
+            position = 0;
+            buffer.clear();
+            skippingLongLine = false;
+        }
+    }
+
+    private void processLines() {
+        int lineStart = buffer.position();
+        int limit = buffer.limit();
+
+        for (int i = lineStart; i < limit; i++) {
+            if (buffer.get(i) == '\n') {
+                processLine(lineStart, i);
+                lineStart = i + 1;
+            }
+        }
+
+        buffer.position(lineStart);
+        buffer.compact();
+
+        if (!buffer.hasRemaining()) {
+            buffer.clear();
+            skippingLongLine = true;
+        }
+    }
+
+    private void flushPartialLine() {
+        buffer.flip();
+        if (buffer.hasRemaining()) {
+            processLine(buffer.position(), buffer.limit());
+        }
+        buffer.clear();
+    }
+
+    private void processLine(int start, int end) {
+        if (skippingLongLine) {
+            skippingLongLine = false;
+            metrics.recordSkippedLine();
+            return;
+        }
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+        if (end - start > MappedLogReader.MAX_LINE_LENGTH) {
+            System.err.println("Пропущена строка длиной " + (end - start) + " байт: превышает " + MappedLogReader.MAX_LINE_LENGTH + " символа");
+            metrics.recordSkippedLine();
+            return;
+        }
+        metrics.process(buffer, start, end, ++lineNumber, record, handler);
+    }
+}
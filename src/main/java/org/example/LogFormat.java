@@ -0,0 +1,30 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+
+public interface LogFormat {
+    LogFormat COMBINED = new CombinedLogFormat();
+    LogFormat COMMON = new NginxLogFormat("common", "$remote_addr - $remote_user [$time_local] \"$request\" $status $body_bytes_sent");
+    LogFormat JSON = new JsonLogFormat();
+
+    boolean parse(ByteBuffer buffer, int start, int end, LogRecordView record);
+
+    String getSpec();
+
+    static LogFormat of(String spec) {
+        switch (spec) {
+            case "combined":
+                return COMBINED;
+            case "common":
+                return COMMON;
+            case "json":
+                return JSON;
+            default:
+                return nginx(spec);
+        }
+    }
+
+    static LogFormat nginx(String logFormat) {
+        return new NginxLogFormat(logFormat, logFormat);
+    }
+}
@@ -0,0 +1,134 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+public final class LogRecordView {
+    public static final long NO_DURATION = -1;
+
+    private static final UserAgent EMPTY_USER_AGENT = UserAgent.of("");
+
+    private final SliceCache<String> ipCache = SliceCache.strings(4096);
+    private final SliceCache<String> pathCache = SliceCache.strings(4096);
+    private final SliceCache<String> refererCache = SliceCache.strings(1024);
+    private final SliceCache<UserAgent> userAgentCache = new SliceCache<>(4096, UserAgentClassifier::classify);
+    final TimestampDecoder timestampDecoder = new TimestampDecoder();
+    private final LogFormat format;
+
+    ByteBuffer buffer;
+    int ipStart;
+    int ipEnd;
+    long epochSecond;
+    int offsetSeconds;
+    HttpMethod method;
+    int pathStart;
+    int pathEnd;
+    int responseCode;
+    int responseSize;
+    int refererStart;
+    int refererEnd;
+    int userAgentStart;
+    int userAgentEnd;
+    long requestTimeMicros;
+    long upstreamTimeMicros;
+    boolean malformed;
+    boolean filtered;
+
+    public LogRecordView() {
+        this(LogFormat.COMBINED);
+    }
+
+    public LogRecordView(LogFormat format) {
+        this.format = format;
+    }
+
+    boolean parse(ByteBuffer buffer, int start, int end) {
+        malformed = false;
+        filtered = false;
+        return format.parse(buffer, start, end, this);
+    }
+
+    void reset(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.ipStart = -1;
+        this.ipEnd = -1;
+        this.epochSecond = TimestampDecoder.INVALID;
+        this.offsetSeconds = 0;
+        this.method = HttpMethod.UNKNOWN;
+        this.pathStart = -1;
+        this.pathEnd = -1;
+        this.responseCode = 0;
+        this.responseSize = 0;
+        this.refererStart = -1;
+        this.refererEnd = -1;
+        this.userAgentStart = -1;
+        this.userAgentEnd = -1;
+        this.requestTimeMicros = NO_DURATION;
+        this.upstreamTimeMicros = NO_DURATION;
+    }
+
+    public String getIpAddress() {
+        return ipStart < 0 ? "0.0.0.0" : ipCache.get(buffer, ipStart, ipEnd);
+    }
+
+    boolean parseIpAddress(IpAddress target) {
+        return ipStart < 0 ? target.parse("0.0.0.0") : target.parse(buffer, ipStart, ipEnd);
+    }
+
+    public long getEpochSecond() {
+        return epochSecond;
+    }
+
+    public LocalDateTime getTime() {
+        if (epochSecond == TimestampDecoder.INVALID) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.ofTotalSeconds(offsetSeconds));
+    }
+
+    public HttpMethod getMethod() {
+        return method;
+    }
+
+    public String getPath() {
+        return pathStart < 0 ? "/" : pathCache.get(buffer, pathStart, pathEnd);
+    }
+
+    int internPath(ByteDictionary dictionary) {
+        return pathStart < 0 ? dictionary.intern("/") : dictionary.intern(buffer, pathStart, pathEnd);
+    }
+
+    public int getResponseCode() {
+        return responseCode;
+    }
+
+    public int getResponseSize() {
+        return responseSize;
+    }
+
+    public String getReferer() {
+        return refererStart < 0 ? null : refererCache.get(buffer, refererStart, refererEnd);
+    }
+
+    public UserAgent getUserAgent() {
+        return userAgentStart < 0 ? EMPTY_USER_AGENT : userAgentCache.get(buffer, userAgentStart, userAgentEnd);
+    }
+
+    public long getRequestTimeMicros() {
+        return requestTimeMicros;
+    }
+
+    public long getUpstreamTimeMicros() {
+        return upstreamTimeMicros;
+    }
+
+    public LogEntry toLogEntry() {
+        return new LogEntry(this);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("IP: %s, Time: %s, Method: %s, Size: %d", getIpAddress(), getTime(), method, responseSize);
+    }
+}
@@ -0,0 +1,192 @@
+package org.example;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+final class LongIntMap {
+    interface Visitor {
+        void visit(long key, int value);
+    }
+
+    static final long NO_KEY = Long.MIN_VALUE;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+    private int resizeAt;
+
+    LongIntMap() {
+        this(64);
+    }
+
+    LongIntMap(int expectedSize) {
+        allocate(tableSize(expectedSize));
+    }
+
+    int add(long key, int delta) {
+        if (key == NO_KEY) {
+            throw new IllegalArgumentException("Недопустимый ключ: " + key);
+        }
+
+        int slot = slot(key);
+        while (keys[slot] != NO_KEY) {
+            if (keys[slot] == key) {
+                values[slot] += delta;
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size >= resizeAt) {
+            rehash(keys.length << 1);
+        }
+        return delta;
+    }
+
+    int get(long key) {
+        if (key == NO_KEY) {
+            return 0;
+        }
+
+        int slot = slot(key);
+        while (keys[slot] != NO_KEY) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    void addAll(LongIntMap other) {
+        for (int i = 0; i < other.keys.length; i++) {
+            if (other.keys[i] != NO_KEY) {
+                add(other.keys[i], other.values[i]);
+            }
+        }
+    }
+
+    void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != NO_KEY) {
+                visitor.visit(keys[i], values[i]);
+            }
+        }
+    }
+
+    int nextSlot(int from) {
+        for (int i = from; i < keys.length; i++) {
+            if (keys[i] != NO_KEY) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    int valueAt(int slot) {
+        return values[slot];
+    }
+
+    Map<Long, Integer> asMap() {
+        return new AbstractMap<>() {
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return get(key) != null;
+            }
+
+            @Override
+            public Integer get(Object key) {
+                int value = key instanceof Long ? LongIntMap.this.get((Long) key) : 0;
+                return value == 0 ? null : value;
+            }
+
+            @Override
+            public Set<Entry<Long, Integer>> entrySet() {
+                return new AbstractSet<>() {
+                    @Override
+                    public int size() {
+                        return size;
+                    }
+
+                    @Override
+                    public Iterator<Entry<Long, Integer>> iterator() {
+                        return new Iterator<>() {
+                            private int slot = nextSlot(0);
+
+                            @Override
+                            public boolean hasNext() {
+                                return slot >= 0;
+                            }
+
+                            @Override
+                            public Entry<Long, Integer> next() {
+                                if (slot < 0) {
+                                    throw new NoSuchElementException();
+                                }
+                                Entry<Long, Integer> entry = new SimpleImmutableEntry<>(keys[slot], values[slot]);
+                                slot = nextSlot(slot + 1);
+                                return entry;
+                            }
+                        };
+                    }
+                };
+            }
+        };
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void rehash(int newSize) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(newSize);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != NO_KEY) {
+                int slot = slot(oldKeys[i]);
+                while (keys[slot] != NO_KEY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int tableSize) {
+        keys = new long[tableSize];
+        Arrays.fill(keys, NO_KEY);
+        values = new int[tableSize];
+        mask = tableSize - 1;
+        resizeAt = (int) (tableSize * LOAD_FACTOR);
+    }
+
+    static int tableSize(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(expectedSize, 4) / LOAD_FACTOR);
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+}
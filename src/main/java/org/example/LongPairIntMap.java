@@ -0,0 +1,128 @@
+package org.example;
+
+final class LongPairIntMap {
+    interface Visitor {
+        void visit(long high, long low, int value);
+    }
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private long[] highs;
+    private long[] lows;
+    private int[] values;
+    private boolean[] used;
+    private int size;
+    private int mask;
+    private int resizeAt;
+
+    LongPairIntMap() {
+        allocate(LongIntMap.tableSize(64));
+    }
+
+    int add(long high, long low, int delta) {
+        int slot = slot(high, low);
+        while (used[slot]) {
+            if (highs[slot] == high && lows[slot] == low) {
+                values[slot] += delta;
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        used[slot] = true;
+        highs[slot] = high;
+        lows[slot] = low;
+        values[slot] = delta;
+        if (++size >= resizeAt) {
+            rehash(highs.length << 1);
+        }
+        return delta;
+    }
+
+    int get(long high, long low) {
+        int slot = slot(high, low);
+        while (used[slot]) {
+            if (highs[slot] == high && lows[slot] == low) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    void addAll(LongPairIntMap other) {
+        for (int i = 0; i < other.used.length; i++) {
+            if (other.used[i]) {
+                add(other.highs[i], other.lows[i], other.values[i]);
+            }
+        }
+    }
+
+    void forEach(Visitor visitor) {
+        for (int i = 0; i < used.length; i++) {
+            if (used[i]) {
+                visitor.visit(highs[i], lows[i], values[i]);
+            }
+        }
+    }
+
+    int nextSlot(int from) {
+        for (int i = from; i < used.length; i++) {
+            if (used[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    long highAt(int slot) {
+        return highs[slot];
+    }
+
+    long lowAt(int slot) {
+        return lows[slot];
+    }
+
+    int valueAt(int slot) {
+        return values[slot];
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int slot(long high, long low) {
+        long h = (high * 0x9E3779B97F4A7C15L) ^ low;
+        h *= 0xC2B2AE3D27D4EB4FL;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void rehash(int newSize) {
+        long[] oldHighs = highs;
+        long[] oldLows = lows;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(newSize);
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (oldUsed[i]) {
+                int slot = slot(oldHighs[i], oldLows[i]);
+                while (used[slot]) {
+                    slot = (slot + 1) & mask;
+                }
+                used[slot] = true;
+                highs[slot] = oldHighs[i];
+                lows[slot] = oldLows[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int tableSize) {
+        highs = new long[tableSize];
+        lows = new long[tableSize];
+        values = new int[tableSize];
+        used = new boolean[tableSize];
+        mask = tableSize - 1;
+        resizeAt = (int) (tableSize * LOAD_FACTOR);
+    }
+}
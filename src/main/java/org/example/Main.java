@@ -3,20 +3,53 @@ package org.example;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
 import java.util.Scanner;
-
-class LineTooLongException extends RuntimeException {
-    public LineTooLongException(String message) {
-        super(message);
-    }
-}
+import java.util.function.Supplier;
 
 public class Main {
+    private static final Duration SNAPSHOT_INTERVAL = Duration.ofSeconds(10);
+    private static final Duration PROGRESS_INTERVAL = Duration.ofSeconds(2);
+    private static final String FORMAT_OPTION = "--format=";
+    private static final String QUERY_OPTION = "--query=";
+    private static final String SYSLOG_OPTION = "--syslog=";
 
     public static void main(String[] args) {
         int fileExistsCounter = 0;
+        boolean mappedMode = hasFlag(args, "--mmap");
+        boolean parallelMode = hasFlag(args, "--parallel");
+        boolean approximateMode = hasFlag(args, "--approx");
+        boolean followMode = hasFlag(args, "--follow");
+        boolean batchMode = hasFlag(args, "--batch");
+        boolean cacheMode = hasFlag(args, "--cache");
+        boolean indexMode = hasFlag(args, "--index");
+        LogFormat format = formatOf(args);
+        Query query = queryOf(args);
+        SketchSettings sketchSettings = approximateMode ? SketchSettings.defaults() : null;
+        BotDetectorSettings botDetectorSettings = hasFlag(args, "--detect-bots") ? BotDetectorSettings.defaults() : null;
+        Supplier<Statistics> statisticsFactory = () -> new Statistics(sketchSettings, botDetectorSettings);
+        InetSocketAddress syslogAddress = syslogAddressOf(args);
+        PipelineMetrics.global().register();
+
+        if (syslogAddress != null) {
+            listen(syslogAddress, format, statisticsFactory);
+            return;
+        }
+        if (botDetectorSettings != null && (parallelMode || batchMode)) {
+            System.out.println("Поведенческое определение ботов учитывает порядок запросов, поэтому файлы читаются последовательно");
+        }
 
         while (true) {
+            if (batchMode) {
+                System.out.print("Введите путь к папке или шаблон файлов: ");
+                readBatch(new Scanner(System.in).nextLine(), format, statisticsFactory);
+                continue;
+            }
+
             System.out.print("Введите путь к файлу: ");
             String path = new Scanner(System.in).nextLine();
             File file = new File(path);
@@ -35,9 +68,98 @@ public class Main {
             fileExistsCounter++;
             System.out.println("Путь указан верно. Выполняется чтение файла " + file.getName() + "...");
 
-            Statistics statistics = new Statistics();
+            if (indexMode && !updateIndex(file, format)) {
+                continue;
+            }
+
+            if (query != null) {
+                QueryResult result = null;
+                ProgressReporter progress = ProgressReporter.start(PROGRESS_INTERVAL);
+                try {
+                    result = query.execute(file, format);
+                } catch (Exception ex) {
+                    System.err.println("Непредвиденная ошибка: " + ex.getMessage());
+                    ex.printStackTrace();
+                    System.exit(1);
+                } finally {
+                    progress.close();
+                }
+                result.print();
+                continue;
+            }
+
+            Statistics statistics = statisticsFactory.get();
+
+            if (followMode) {
+                try {
+                    new LogFollower(file.toPath(), format, statisticsFactory, SNAPSHOT_INTERVAL, snapshot -> {
+                        System.out.println();
+                        snapshot.printStatistics();
+                    }, false).run();
+                } catch (Exception ex) {
+                    System.err.println("Непредвиденная ошибка: " + ex.getMessage());
+                    ex.printStackTrace();
+                    System.exit(1);
+                }
+                continue;
+            }
+
+            if (cacheMode) {
+                ProgressReporter progress = ProgressReporter.start(PROGRESS_INTERVAL);
+                try {
+                    if (ColumnarLogCache.read(file, format, statistics)) {
+                        System.out.println("Статистика восстановлена из кэша");
+                    }
+                } catch (Exception ex) {
+                    System.err.println("Непредвиденная ошибка: " + ex.getMessage());
+                    ex.printStackTrace();
+                    System.exit(1);
+                } finally {
+                    progress.close();
+                }
+                statistics.printStatistics();
+                continue;
+            }
+
+            try {
+                if (CompressedLogReader.isCompressed(file)) {
+                    ProgressReporter progress = ProgressReporter.start(PROGRESS_INTERVAL);
+                    try {
+                        CompressedLogReader.read(file, format, statistics);
+                    } finally {
+                        progress.close();
+                    }
+                    statistics.printStatistics();
+                    continue;
+                }
+            } catch (Exception ex) {
+                System.err.println("Непредвиденная ошибка: " + ex.getMessage());
+                ex.printStackTrace();
+                System.exit(1);
+            }
+
+            if (mappedMode || parallelMode || format != LogFormat.COMBINED) {
+                ProgressReporter progress = ProgressReporter.start(PROGRESS_INTERVAL);
+                try {
+                    if (parallelMode && botDetectorSettings == null) {
+                        statistics = ParallelLogReader.read(file, Runtime.getRuntime().availableProcessors(), format, statisticsFactory);
+                    } else {
+                        MappedLogReader.read(file, format, statistics);
+                    }
+                } catch (Exception ex) {
+                    System.err.println("Непредвиденная ошибка: " + ex.getMessage());
+                    ex.printStackTrace();
+                    System.exit(1);
+                } finally {
+                    progress.close();
+                }
+                statistics.printStatistics();
+                continue;
+            }
 
+            ProgressReporter progress = ProgressReporter.start(PROGRESS_INTERVAL);
             try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                PipelineMetrics metrics = PipelineMetrics.global();
                 String line;
                 int totalLines = 0;
 
@@ -48,20 +170,131 @@ public class Main {
                         throw new LineTooLongException("Строка #" + (totalLines) + " превышает 1024 символа. Длина: " + line.length());
                     }
 
-                    if (!line.trim().isEmpty()) {
-                        LogEntry entry = new LogEntry(line);
-                        statistics.addEntry(entry);
-                    }
+                    metrics.process(line, totalLines, statistics);
                 }
-
-                statistics.printStatistics();
-
             } catch (Exception ex) {
                 System.err.println("Непредвиденная ошибка: " + ex.getMessage());
                 ex.printStackTrace();
                 System.exit(1);
+            } finally {
+                progress.close();
+            }
+
+            statistics.printStatistics();
+        }
+    }
+
+    private static boolean updateIndex(File file, LogFormat format) {
+        try {
+            if (CompressedLogReader.isCompressed(file)) {
+                System.out.println("Индекс по времени строится только для несжатых файлов");
+                return true;
+            }
+            TimeIndex index = TimeIndex.update(file, format);
+            System.out.printf("Индекс по времени: %,d блоков, проиндексировано %,d байт%n", index.getBlockCount(), index.getIndexedSize());
+            return true;
+        } catch (Exception ex) {
+            System.err.println("Не удалось построить индекс: " + ex.getMessage());
+            System.out.println();
+            return false;
+        }
+    }
+
+    private static void readBatch(String pattern, LogFormat format, Supplier<Statistics> statisticsFactory) {
+        List<Path> files;
+        try {
+            files = BatchLogReader.resolve(pattern);
+        } catch (IOException ex) {
+            System.out.println(ex.getMessage());
+            System.out.println();
+            return;
+        }
+        if (files.isEmpty()) {
+            System.out.println("По указанному пути не найдено ни одного файла");
+            System.out.println();
+            return;
+        }
+
+        System.out.println("Найдено файлов: " + files.size() + ". Выполняется чтение...");
+        ProgressReporter progress = ProgressReporter.start(PROGRESS_INTERVAL);
+        try {
+            BatchReport report = BatchLogReader.read(files, Runtime.getRuntime().availableProcessors(), format, statisticsFactory);
+            report.printSummary();
+            System.out.println();
+            report.getStatistics().printStatistics();
+        } catch (Exception ex) {
+            System.err.println("Непредвиденная ошибка: " + ex.getMessage());
+            ex.printStackTrace();
+            System.exit(1);
+        } finally {
+            progress.close();
+        }
+    }
+
+    private static void listen(InetSocketAddress address, LogFormat format, Supplier<Statistics> statisticsFactory) {
+        try (SyslogListener listener = new SyslogListener(address, format, statisticsFactory, SyslogSettings.defaults())) {
+            System.out.println("Прием syslog по UDP и TCP на порту " + listener.getPort() + "...");
+            listener.run(SNAPSHOT_INTERVAL, snapshot -> {
+                System.out.println();
+                snapshot.printStatistics();
+                listener.printCounters();
+            });
+        } catch (Exception ex) {
+            System.err.println("Непредвиденная ошибка: " + ex.getMessage());
+            ex.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static LogFormat formatOf(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith(FORMAT_OPTION)) {
+                try {
+                    return LogFormat.of(arg.substring(FORMAT_OPTION.length()));
+                } catch (IllegalArgumentException ex) {
+                    System.err.println("Неверный формат лога: " + ex.getMessage());
+                    System.exit(1);
+                }
+            }
+        }
+        return LogFormat.COMBINED;
+    }
+
+    private static Query queryOf(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith(QUERY_OPTION)) {
+                try {
+                    return Query.parse(arg.substring(QUERY_OPTION.length()));
+                } catch (IllegalArgumentException ex) {
+                    System.err.println("Неверный запрос: " + ex.getMessage());
+                    System.exit(1);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static InetSocketAddress syslogAddressOf(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith(SYSLOG_OPTION)) {
+                try {
+                    return SyslogListener.parseAddress(arg.substring(SYSLOG_OPTION.length()));
+                } catch (IllegalArgumentException ex) {
+                    System.err.println(ex.getMessage());
+                    System.exit(1);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasFlag(String[] args, String flag) {
+        for (String arg : args) {
+            if (arg.equals(flag)) {
+                return true;
             }
         }
+        return false;
     }
 }
 
@@ -0,0 +1,72 @@
+package org.example;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+public class MappedLogReader {
+    static final int MAX_LINE_LENGTH = 1024;
+    private static final long WINDOW_SIZE = 1L << 30;
+
+    public static void read(File file, Statistics statistics) throws IOException {
+        read(file, LogFormat.COMBINED, statistics);
+    }
+
+    public static void read(File file, LogFormat format, Statistics statistics) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            read(channel, 0, channel.size(), format, statistics::addEntry);
+        }
+    }
+
+    static void read(FileChannel channel, long from, long to, LogFormat format, RecordHandler handler) throws IOException {
+        LogRecordView record = new LogRecordView(format);
+        PipelineMetrics metrics = PipelineMetrics.global();
+        long position = from;
+        long lineNumber = 0;
+
+        while (position < to) {
+            long size = Math.min(WINDOW_SIZE, to - position);
+            long mapStart = System.nanoTime();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+            metrics.recordRead(size, System.nanoTime() - mapStart);
+            int limit = (int) size;
+            int lineStart = 0;
+
+            for (int i = 0; i < limit; i++) {
+                if (buffer.get(i) == '\n') {
+                    lineNumber++;
+                    processLine(buffer, lineStart, i, lineNumber, record, handler, metrics);
+                    lineStart = i + 1;
+                }
+            }
+
+            if (position + size >= to) {
+                if (lineStart < limit) {
+                    lineNumber++;
+                    processLine(buffer, lineStart, limit, lineNumber, record, handler, metrics);
+                }
+                position = to;
+            } else {
+                if (limit - lineStart > MAX_LINE_LENGTH) {
+                    throw new LineTooLongException("Строка #" + (lineNumber + 1) + " превышает " + MAX_LINE_LENGTH + " символа");
+                }
+                position += lineStart;
+            }
+        }
+    }
+
+    private static void processLine(MappedByteBuffer buffer, int start, int end, long lineNumber,
+                                    LogRecordView record, RecordHandler handler, PipelineMetrics metrics) {
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+
+        if (end - start > MAX_LINE_LENGTH) {
+            throw new LineTooLongException("Строка #" + lineNumber + " превышает " + MAX_LINE_LENGTH + " символа. Длина: " + (end - start));
+        }
+
+        metrics.process(buffer, start, end, lineNumber, record, handler);
+    }
+}
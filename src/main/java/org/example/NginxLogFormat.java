@@ -0,0 +1,128 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+final class NginxLogFormat implements LogFormat {
+    private final String spec;
+    private final byte[][] literals;
+    private final LogField[] fields;
+
+    NginxLogFormat(String spec, String logFormat) {
+        List<byte[]> literals = new ArrayList<>();
+        List<LogField> fields = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        String previous = null;
+        int i = 0;
+
+        while (i < logFormat.length()) {
+            char c = logFormat.charAt(i);
+            int nameStart = i + 1;
+            int nameEnd = nameStart;
+            boolean braced = c == '$' && nameStart < logFormat.length() && logFormat.charAt(nameStart) == '{';
+            if (braced) {
+                nameStart++;
+                nameEnd = logFormat.indexOf('}', nameStart);
+                if (nameEnd < 0) {
+                    throw new IllegalArgumentException("Незакрытая переменная в формате: " + logFormat.substring(i));
+                }
+            } else if (c == '$') {
+                while (nameEnd < logFormat.length() && isNameChar(logFormat.charAt(nameEnd))) {
+                    nameEnd++;
+                }
+            }
+
+            if (c != '$' || nameEnd == nameStart) {
+                literal.append(c);
+                i++;
+                continue;
+            }
+
+            String name = logFormat.substring(nameStart, nameEnd);
+            if (previous != null && literal.length() == 0) {
+                throw new IllegalArgumentException("Между переменными $" + previous + " и $" + name + " нет разделителя");
+            }
+            literals.add(literal.toString().getBytes(StandardCharsets.UTF_8));
+            literal.setLength(0);
+            fields.add(LogField.forName(name));
+            previous = name;
+            i = braced ? nameEnd + 1 : nameEnd;
+        }
+
+        if (fields.isEmpty()) {
+            throw new IllegalArgumentException("Формат не содержит переменных: " + logFormat);
+        }
+        literals.add(literal.toString().getBytes(StandardCharsets.UTF_8));
+
+        this.spec = spec;
+        this.literals = literals.toArray(new byte[0][]);
+        this.fields = fields.toArray(new LogField[0]);
+    }
+
+    @Override
+    public boolean parse(ByteBuffer buffer, int start, int end, LogRecordView record) {
+        while (start < end && buffer.get(start) <= ' ') {
+            start++;
+        }
+        while (end > start && buffer.get(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return false;
+        }
+        if (!matches(buffer, start, end, literals[0])) {
+            return reject();
+        }
+
+        record.reset(buffer);
+        int position = start + literals[0].length;
+        for (int f = 0; f < fields.length; f++) {
+            byte[] terminator = literals[f + 1];
+            int valueEnd = terminator.length == 0 ? end : find(buffer, position, end, terminator);
+            if (valueEnd < 0) {
+                return reject();
+            }
+            fields[f].extract(buffer, position, valueEnd, record);
+            position = valueEnd + terminator.length;
+        }
+        return true;
+    }
+
+    @Override
+    public String getSpec() {
+        return spec;
+    }
+
+    private static boolean reject() {
+        return false;
+    }
+
+    private static int find(ByteBuffer buffer, int from, int end, byte[] literal) {
+        byte first = literal[0];
+        int last = end - literal.length;
+        for (int i = from; i <= last; i++) {
+            if (buffer.get(i) == first && matches(buffer, i, end, literal)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean matches(ByteBuffer buffer, int position, int end, byte[] literal) {
+        if (end - position < literal.length) {
+            return false;
+        }
+        for (int i = 0; i < literal.length; i++) {
+            if (buffer.get(position + i) != literal[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isNameChar(char c) {
+        return c == '_' || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+}
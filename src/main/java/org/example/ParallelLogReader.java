@@ -0,0 +1,100 @@
+package org.example;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+public class ParallelLogReader {
+    private static final long MIN_CHUNK_SIZE = 16L << 20;
+
+    public static Statistics read(File file) throws IOException {
+        return read(file, Runtime.getRuntime().availableProcessors());
+    }
+
+    public static Statistics read(File file, int threads) throws IOException {
+        return read(file, threads, Statistics::new);
+    }
+
+    public static Statistics read(File file, int threads, Supplier<Statistics> factory) throws IOException {
+        return read(file, threads, LogFormat.COMBINED, factory);
+    }
+
+    public static Statistics read(File file, int threads, LogFormat format, Supplier<Statistics> factory) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long chunkSize = Math.max(MIN_CHUNK_SIZE, size / (threads * 4L));
+            return pool.invoke(new ChunkTask(channel, 0, size, chunkSize, format, factory));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    static long nextLineStart(FileChannel channel, long position, long limit) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(MappedLogReader.MAX_LINE_LENGTH + 2);
+        while (position < limit) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                return limit;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return Math.min(position + i + 1, limit);
+                }
+            }
+            position += read;
+        }
+        return limit;
+    }
+
+    private static class ChunkTask extends RecursiveTask<Statistics> {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long from;
+        private final long to;
+        private final long chunkSize;
+        private final LogFormat format;
+        private final Supplier<Statistics> factory;
+
+        ChunkTask(FileChannel channel, long from, long to, long chunkSize, LogFormat format, Supplier<Statistics> factory) {
+            this.channel = channel;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.format = format;
+            this.factory = factory;
+        }
+
+        @Override
+        protected Statistics compute() {
+            try {
+                if (to - from > chunkSize) {
+                    long middle = nextLineStart(channel, from + (to - from) / 2, to);
+                    if (middle > from && middle < to) {
+                        ChunkTask right = new ChunkTask(channel, middle, to, chunkSize, format, factory);
+                        right.fork();
+                        Statistics left = new ChunkTask(channel, from, middle, chunkSize, format, factory).compute();
+                        left.merge(right.join());
+                        return left;
+                    }
+                }
+
+                Statistics statistics = factory.get();
+                MappedLogReader.read(channel, from, to, format, statistics::addEntry);
+                return statistics;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package org.example;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+public final class PipelineMetrics implements PipelineMetricsMXBean {
+    static final boolean ENABLED = !"false".equals(System.getProperty("alp.metrics"));
+    static final String OBJECT_NAME = "org.example:type=PipelineMetrics";
+
+    private static final int SAMPLE_MASK = 63;
+    private static final PipelineMetrics GLOBAL = new PipelineMetrics();
+
+    private final long startedNanos = System.nanoTime();
+    private final LongAdder linesRead = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder entriesAggregated = new LongAdder();
+    private final LongAdder skippedLines = new LongAdder();
+    private final LongAdder filteredLines = new LongAdder();
+    private final LongAdder parseFailures = new LongAdder();
+    private final LatencyHistogram readLatency = new LatencyHistogram();
+    private final LatencyHistogram parseLatency = new LatencyHistogram();
+    private final LatencyHistogram classifyLatency = new LatencyHistogram();
+    private final LatencyHistogram aggregateLatency = new LatencyHistogram();
+
+    private PipelineMetrics() {
+    }
+
+    public static PipelineMetrics global() {
+        return GLOBAL;
+    }
+
+    public void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+            }
+        } catch (JMException e) {
+            System.err.println("Не удалось зарегистрировать метрики в JMX: " + e.getMessage());
+        }
+    }
+
+    void recordRead(long bytes, long nanos) {
+        if (ENABLED) {
+            bytesRead.add(bytes);
+            readLatency.record(nanos);
+        }
+    }
+
+    void recordSkippedLine() {
+        if (ENABLED) {
+            linesRead.increment();
+            skippedLines.increment();
+        }
+    }
+
+    void recordParseFailure() {
+        if (ENABLED) {
+            parseFailures.increment();
+        }
+    }
+
+    void process(ByteBuffer buffer, int start, int end, long lineNumber, LogRecordView record, RecordHandler handler) {
+        if (!ENABLED) {
+            if (record.parse(buffer, start, end)) {
+                handler.handle(record);
+            }
+            return;
+        }
+
+        linesRead.increment();
+        if ((lineNumber & SAMPLE_MASK) != 0) {
+            if (record.parse(buffer, start, end)) {
+                handler.handle(record);
+                recordAggregated(record);
+            } else {
+                recordRejected(buffer, start, end, record);
+            }
+            return;
+        }
+
+        long parseStart = System.nanoTime();
+        boolean parsed = record.parse(buffer, start, end);
+        long classifyStart = System.nanoTime();
+        parseLatency.record(classifyStart - parseStart);
+        if (!parsed) {
+            recordRejected(buffer, start, end, record);
+            return;
+        }
+
+        record.getUserAgent();
+        long aggregateStart = System.nanoTime();
+        classifyLatency.record(aggregateStart - classifyStart);
+        handler.handle(record);
+        aggregateLatency.record(System.nanoTime() - aggregateStart);
+        recordAggregated(record);
+    }
+
+    private void recordAggregated(LogRecordView record) {
+        entriesAggregated.increment();
+        if (record.malformed) {
+            parseFailures.increment();
+        }
+    }
+
+    private void recordRejected(ByteBuffer buffer, int start, int end, LogRecordView record) {
+        if (record.filtered && !record.malformed) {
+            filteredLines.increment();
+        } else if (isBlank(buffer, start, end)) {
+            skippedLines.increment();
+        } else {
+            parseFailures.increment();
+        }
+    }
+
+    private static boolean isBlank(ByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void process(String line, long lineNumber, Statistics statistics) {
+        if (!ENABLED) {
+            if (!line.trim().isEmpty()) {
+                statistics.addEntry(new LogEntry(line));
+            }
+            return;
+        }
+
+        linesRead.increment();
+        bytesRead.add(line.length() + 1);
+        if (line.trim().isEmpty()) {
+            skippedLines.increment();
+            return;
+        }
+
+        if ((lineNumber & SAMPLE_MASK) != 0) {
+            statistics.addEntry(new LogEntry(line));
+        } else {
+            long parseStart = System.nanoTime();
+            LogEntry entry = new LogEntry(line);
+            long aggregateStart = System.nanoTime();
+            parseLatency.record(aggregateStart - parseStart);
+            statistics.addEntry(entry);
+            aggregateLatency.record(System.nanoTime() - aggregateStart);
+        }
+        entriesAggregated.increment();
+    }
+
+    public long getUptimeNanos() {
+        return System.nanoTime() - startedNanos;
+    }
+
+    @Override
+    public long getLinesRead() {
+        return linesRead.sum();
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public long getEntriesAggregated() {
+        return entriesAggregated.sum();
+    }
+
+    @Override
+    public long getSkippedLines() {
+        return skippedLines.sum();
+    }
+
+    @Override
+    public long getFilteredLines() {
+        return filteredLines.sum();
+    }
+
+    @Override
+    public long getParseFailures() {
+        return parseFailures.sum();
+    }
+
+    @Override
+    public double getLinesPerSecond() {
+        return getLinesRead() * 1e9 / getUptimeNanos();
+    }
+
+    @Override
+    public double getBytesPerSecond() {
+        return getBytesRead() * 1e9 / getUptimeNanos();
+    }
+
+    @Override
+    public long getReadLatencyP50Nanos() {
+        return readLatency.percentile(50);
+    }
+
+    @Override
+    public long getReadLatencyP99Nanos() {
+        return readLatency.percentile(99);
+    }
+
+    @Override
+    public long getParseLatencyP50Nanos() {
+        return parseLatency.percentile(50);
+    }
+
+    @Override
+    public long getParseLatencyP99Nanos() {
+        return parseLatency.percentile(99);
+    }
+
+    @Override
+    public long getClassifyLatencyP50Nanos() {
+        return classifyLatency.percentile(50);
+    }
+
+    @Override
+    public long getClassifyLatencyP99Nanos() {
+        return classifyLatency.percentile(99);
+    }
+
+    @Override
+    public long getAggregateLatencyP50Nanos() {
+        return aggregateLatency.percentile(50);
+    }
+
+    @Override
+    public long getAggregateLatencyP99Nanos() {
+        return aggregateLatency.percentile(99);
+    }
+}
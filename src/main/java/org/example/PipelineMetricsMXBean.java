@@ -0,0 +1,35 @@
+package org.example;
+
+public interface PipelineMetricsMXBean {
+    long getLinesRead();
+
+    long getBytesRead();
+
+    long getEntriesAggregated();
+
+    long getSkippedLines();
+
+    long getFilteredLines();
+
+    long getParseFailures();
+
+    double getLinesPerSecond();
+
+    double getBytesPerSecond();
+
+    long getReadLatencyP50Nanos();
+
+    long getReadLatencyP99Nanos();
+
+    long getParseLatencyP50Nanos();
+
+    long getParseLatencyP99Nanos();
+
+    long getClassifyLatencyP50Nanos();
+
+    long getClassifyLatencyP99Nanos();
+
+    long getAggregateLatencyP50Nanos();
+
+    long getAggregateLatencyP99Nanos();
+}
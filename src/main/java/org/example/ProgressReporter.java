@@ -0,0 +1,80 @@
+package org.example;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public final class ProgressReporter implements AutoCloseable {
+    private final PipelineMetrics metrics = PipelineMetrics.global();
+    private final ScheduledExecutorService scheduler;
+    private final long startNanos;
+    private final long startLines;
+    private final long startBytes;
+    private final long startFailures;
+    private long lastNanos;
+    private long lastLines;
+    private long lastBytes;
+
+    private ProgressReporter(Duration interval) {
+        startNanos = lastNanos = System.nanoTime();
+        startLines = lastLines = metrics.getLinesRead();
+        startBytes = lastBytes = metrics.getBytesRead();
+        startFailures = metrics.getParseFailures();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "progress-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        scheduler.scheduleAtFixedRate(this::report, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    public static ProgressReporter start(Duration interval) {
+        return new ProgressReporter(interval);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        if (!PipelineMetrics.ENABLED) {
+            return;
+        }
+
+        long nanos = System.nanoTime() - startNanos;
+        long lines = metrics.getLinesRead() - startLines;
+        long bytes = metrics.getBytesRead() - startBytes;
+        System.err.printf("Обработано: %,d строк, %.1f МБ за %.1f с (%,.0f строк/с, %.1f МБ/с), ошибок разбора: %,d%n",
+                lines, megabytes(bytes), nanos / 1e9, perSecond(lines, nanos), megabytes(perSecond(bytes, nanos)),
+                metrics.getParseFailures() - startFailures);
+    }
+
+    private synchronized void report() {
+        if (!PipelineMetrics.ENABLED) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        long lines = metrics.getLinesRead();
+        long bytes = metrics.getBytesRead();
+        long nanos = now - lastNanos;
+        System.err.printf("Прогресс: %,d строк (%,.0f строк/с), %.1f МБ (%.1f МБ/с), пропущено: %,d, отфильтровано запросом: %,d, ошибок разбора: %,d, "
+                        + "разбор p50/p99: %.2f/%.2f мкс, агрегация p50/p99: %.2f/%.2f мкс%n",
+                lines - startLines, perSecond(lines - lastLines, nanos), megabytes(bytes - startBytes),
+                megabytes(perSecond(bytes - lastBytes, nanos)), metrics.getSkippedLines(), metrics.getFilteredLines(),
+                metrics.getParseFailures() - startFailures,
+                metrics.getParseLatencyP50Nanos() / 1e3, metrics.getParseLatencyP99Nanos() / 1e3,
+                metrics.getAggregateLatencyP50Nanos() / 1e3, metrics.getAggregateLatencyP99Nanos() / 1e3);
+        lastNanos = now;
+        lastLines = lines;
+        lastBytes = bytes;
+    }
+
+    private static double perSecond(long value, long nanos) {
+        return nanos == 0 ? 0.0 : value * 1e9 / nanos;
+    }
+
+    private static double megabytes(double bytes) {
+        return bytes / (1024.0 * 1024.0);
+    }
+}
@@ -0,0 +1,195 @@
+package org.example;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+public final class Query {
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final String text;
+    private final RecordFilter filter;
+    private final long fromSecond;
+    private final long toSecond;
+    private final GroupBy groupBy;
+    private final int limit;
+
+    private Query(String text, RecordFilter filter, long fromSecond, long toSecond, GroupBy groupBy, int limit) {
+        this.text = text;
+        this.filter = filter;
+        this.fromSecond = fromSecond;
+        this.toSecond = toSecond;
+        this.groupBy = groupBy;
+        this.limit = limit;
+    }
+
+    public static Query parse(String text) {
+        RecordFilter filter = new RecordFilter();
+        GroupBy groupBy = GroupBy.ALL;
+        int limit = DEFAULT_LIMIT;
+        long from = Long.MIN_VALUE;
+        long to = Long.MAX_VALUE;
+
+        for (String term : text.trim().split("\\s+")) {
+            if (term.isEmpty()) {
+                continue;
+            }
+            int eq = term.indexOf('=');
+            if (eq <= 0 || eq == term.length() - 1) {
+                throw new IllegalArgumentException("Ожидается условие вида поле=значение: " + term);
+            }
+
+            String key = term.substring(0, eq).toLowerCase(Locale.ROOT);
+            String value = term.substring(eq + 1);
+            switch (key) {
+                case "from":
+                    from = parseTime(value);
+                    break;
+                case "to":
+                    to = parseTime(value);
+                    break;
+                case "status":
+                    for (String status : value.split(",")) {
+                        addStatus(filter, status);
+                    }
+                    break;
+                case "method":
+                    for (String method : value.split(",")) {
+                        filter.addMethod(parseMethod(method));
+                    }
+                    break;
+                case "ip":
+                    for (String network : value.split(",")) {
+                        filter.addNetwork(network);
+                    }
+                    break;
+                case "path":
+                    for (String prefix : value.split(",")) {
+                        filter.addPathPrefix(prefix);
+                    }
+                    break;
+                case "bot":
+                    filter.setBot(parseBoolean(value));
+                    break;
+                case "group":
+                    groupBy = GroupBy.forName(value.toLowerCase(Locale.ROOT));
+                    break;
+                case "limit":
+                    limit = parseLimit(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Неизвестное поле запроса: " + key);
+            }
+        }
+
+        if (from >= to) {
+            throw new IllegalArgumentException("Начало периода должно быть раньше конца");
+        }
+        filter.setTimeRange(from, to);
+        return new Query(text.trim(), filter, from, to, groupBy, limit);
+    }
+
+    public QueryResult execute(File file) throws IOException {
+        return execute(file, LogFormat.COMBINED);
+    }
+
+    public QueryResult execute(File file, LogFormat format) throws IOException {
+        LogFormat filtered = new FilteredLogFormat(format, filter, text);
+        QueryAggregator aggregator = new QueryAggregator(groupBy);
+        if (CompressedLogReader.isCompressed(file)) {
+            CompressedLogReader.read(file, filtered, aggregator);
+        } else {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                long[] span = span(file, channel, format);
+                MappedLogReader.read(channel, span[0], span[1], filtered, aggregator);
+            }
+        }
+        return aggregator.result(text, limit);
+    }
+
+    private long[] span(File file, FileChannel channel, LogFormat format) throws IOException {
+        if (fromSecond == Long.MIN_VALUE && toSecond == Long.MAX_VALUE) {
+            return new long[]{0, channel.size()};
+        }
+        TimeIndex index = TimeIndex.open(file, channel, format);
+        if (index != null) {
+            return index.span(fromSecond, toSecond, channel.size());
+        }
+        return TimeIndex.search(channel, format, fromSecond, toSecond);
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    private static long parseTime(String value) {
+        try {
+            if (value.indexOf('T') < 0) {
+                return LocalDate.parse(value).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+            }
+            return LocalDateTime.parse(value).toEpochSecond(ZoneOffset.UTC);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Неверное время: " + value + " (ожидается 2022-09-20 или 2022-09-20T02:00)");
+        }
+    }
+
+    private static void addStatus(RecordFilter filter, String value) {
+        try {
+            if (value.length() == 3 && value.substring(1).equalsIgnoreCase("xx")) {
+                int hundreds = Integer.parseInt(value.substring(0, 1)) * 100;
+                filter.addStatusRange(hundreds, hundreds + 99);
+                return;
+            }
+            int dash = value.indexOf('-');
+            if (dash > 0) {
+                filter.addStatusRange(Integer.parseInt(value.substring(0, dash)), Integer.parseInt(value.substring(dash + 1)));
+            } else {
+                int status = Integer.parseInt(value);
+                filter.addStatusRange(status, status);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Неверный код ответа: " + value);
+        }
+    }
+
+    private static HttpMethod parseMethod(String value) {
+        try {
+            return HttpMethod.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Неизвестный HTTP-метод: " + value);
+        }
+    }
+
+    private static boolean parseBoolean(String value) {
+        switch (value.toLowerCase(Locale.ROOT)) {
+            case "true":
+            case "yes":
+                return true;
+            case "false":
+            case "no":
+                return false;
+            default:
+                throw new IllegalArgumentException("Ожидается true или false: " + value);
+        }
+    }
+
+    private static int parseLimit(String value) {
+        int limit;
+        try {
+            limit = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            limit = 0;
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Неверное ограничение числа групп: " + value);
+        }
+        return limit;
+    }
+}
@@ -0,0 +1,147 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+final class QueryAggregator implements RecordHandler {
+    private static final int BATCH_SIZE = 4096;
+    private static final byte[] NO_REFERER = {'-'};
+    private static final byte[] NO_IP = "0.0.0.0".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ROOT = {'/'};
+
+    private final GroupBy groupBy;
+    private final LongIntMap numericIds = new LongIntMap();
+    private final ByteDictionary textIds = new ByteDictionary();
+    private final ByteBuffer scratch = ByteBuffer.allocate(MappedLogReader.MAX_LINE_LENGTH);
+    private long[] keys = new long[64];
+    private long[] counts = new long[64];
+    private long[] bytes = new long[64];
+    private DurationHistogram[] latencies = new DurationHistogram[64];
+    private int groups;
+    private long matched;
+
+    private final int[] batchIds = new int[BATCH_SIZE];
+    private final int[] batchSizes = new int[BATCH_SIZE];
+    private final long[] batchMicros = new long[BATCH_SIZE];
+    private int batchCount;
+
+    QueryAggregator(GroupBy groupBy) {
+        this.groupBy = groupBy;
+    }
+
+    @Override
+    public void handle(LogRecordView record) {
+        batchIds[batchCount] = groupBy.isText() ? textGroup(record) : numericGroup(groupBy.key(record));
+        batchSizes[batchCount] = record.responseSize;
+        batchMicros[batchCount] = record.requestTimeMicros;
+        if (++batchCount == BATCH_SIZE) {
+            flush();
+        }
+    }
+
+    private int numericGroup(long key) {
+        int id = numericIds.get(key) - 1;
+        if (id < 0) {
+            id = newGroup();
+            keys[id] = key;
+            numericIds.add(key, id + 1);
+        }
+        return id;
+    }
+
+    private int textGroup(LogRecordView record) {
+        ByteBuffer buffer = record.buffer;
+        int start;
+        int end;
+        if (groupBy == GroupBy.PATH) {
+            if (record.pathStart < 0) {
+                return textGroup(ROOT);
+            }
+            start = record.pathStart;
+            end = ByteLogParser.indexOf(buffer, '?', start, record.pathEnd);
+            end = end < 0 ? record.pathEnd : end;
+        } else if (groupBy == GroupBy.IP) {
+            if (record.ipStart < 0) {
+                return textGroup(NO_IP);
+            }
+            start = record.ipStart;
+            end = record.ipEnd;
+        } else {
+            long bounds = record.refererStart < 0 ? DomainScanner.NONE : DomainScanner.hostBounds(buffer, record.refererStart, record.refererEnd);
+            if (bounds == DomainScanner.NONE) {
+                return textGroup(NO_REFERER);
+            }
+            start = DomainScanner.start(bounds);
+            end = DomainScanner.end(bounds);
+            if (DomainScanner.hasUpperCase(buffer, start, end)) {
+                for (int i = start; i < end; i++) {
+                    scratch.put(i - start, (byte) DomainScanner.lower(buffer.get(i)));
+                }
+                buffer = scratch;
+                end -= start;
+                start = 0;
+            }
+        }
+
+        int id = textIds.intern(buffer, start, end);
+        if (id == groups) {
+            newGroup();
+        }
+        return id;
+    }
+
+    private int textGroup(byte[] value) {
+        int id = textIds.intern(ByteBuffer.wrap(value), 0, value.length);
+        if (id == groups) {
+            newGroup();
+        }
+        return id;
+    }
+
+    private int newGroup() {
+        if (groups == counts.length) {
+            int capacity = groups << 1;
+            keys = Arrays.copyOf(keys, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            bytes = Arrays.copyOf(bytes, capacity);
+            latencies = Arrays.copyOf(latencies, capacity);
+        }
+        return groups++;
+    }
+
+    private void flush() {
+        int[] ids = batchIds;
+        int n = batchCount;
+        for (int i = 0; i < n; i++) {
+            counts[ids[i]]++;
+        }
+        for (int i = 0; i < n; i++) {
+            bytes[ids[i]] += batchSizes[i];
+        }
+        for (int i = 0; i < n; i++) {
+            if (batchMicros[i] != LogRecordView.NO_DURATION) {
+                DurationHistogram histogram = latencies[ids[i]];
+                if (histogram == null) {
+                    histogram = latencies[ids[i]] = new DurationHistogram();
+                }
+                histogram.record(batchMicros[i]);
+            }
+        }
+        matched += n;
+        batchCount = 0;
+    }
+
+    QueryResult result(String query, int limit) {
+        flush();
+        List<QueryRow> rows = new ArrayList<>(groups);
+        for (int id = 0; id < groups; id++) {
+            String label = groupBy.isText() ? textIds.get(id) : groupBy.label(keys[id]);
+            LatencySummary latency = latencies[id] == null ? null : latencies[id].summarize(label);
+            rows.add(new QueryRow(label, counts[id], bytes[id], latency));
+        }
+        return new QueryResult(query, groupBy.getName(), matched, rows, limit);
+    }
+}
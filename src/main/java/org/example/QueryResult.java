@@ -0,0 +1,57 @@
+package org.example;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+public final class QueryResult {
+    private static final Comparator<QueryRow> BY_COUNT = Comparator.comparingLong(QueryRow::getCount).reversed()
+            .thenComparing(QueryRow::getKey);
+
+    private final String query;
+    private final String groupBy;
+    private final long matched;
+    private final int groups;
+    private final List<QueryRow> rows;
+
+    QueryResult(String query, String groupBy, long matched, List<QueryRow> rows, int limit) {
+        rows.sort(BY_COUNT);
+        this.query = query;
+        this.groupBy = groupBy;
+        this.matched = matched;
+        this.groups = rows.size();
+        this.rows = Collections.unmodifiableList(rows.subList(0, Math.min(limit, rows.size())));
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public long getMatchedCount() {
+        return matched;
+    }
+
+    public int getGroupCount() {
+        return groups;
+    }
+
+    public List<QueryRow> getRows() {
+        return rows;
+    }
+
+    public void print() {
+        System.out.printf("Запрос: %s%n", query);
+        System.out.printf("Подходящих записей: %,d, групп (%s): %,d%n", matched, groupBy, groups);
+        for (QueryRow row : rows) {
+            System.out.printf("  %s - %,d запросов, %,d байт (в среднем %.0f)", row.getKey(), row.getCount(), row.getBytes(), row.getAverageBytes());
+            LatencySummary latency = row.getLatency();
+            if (latency != null) {
+                System.out.printf(", время ответа p50 %.1f мс, p99 %.1f мс", latency.getP50Micros() / 1000.0, latency.getP99Micros() / 1000.0);
+            }
+            System.out.println();
+        }
+        if (groups > rows.size()) {
+            System.out.println("  ... и еще " + (groups - rows.size()));
+        }
+    }
+}
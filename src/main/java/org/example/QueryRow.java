@@ -0,0 +1,35 @@
+package org.example;
+
+public final class QueryRow {
+    private final String key;
+    private final long count;
+    private final long bytes;
+    private final LatencySummary latency;
+
+    QueryRow(String key, long count, long bytes, LatencySummary latency) {
+        this.key = key;
+        this.count = count;
+        this.bytes = bytes;
+        this.latency = latency;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public double getAverageBytes() {
+        return count == 0 ? 0.0 : (double) bytes / count;
+    }
+
+    public LatencySummary getLatency() {
+        return latency;
+    }
+}
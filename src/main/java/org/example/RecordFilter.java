@@ -0,0 +1,159 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+final class RecordFilter {
+    private static final int MAX_STATUS = 600;
+    private static final ThreadLocal<IpAddress> IP_ADDRESS = ThreadLocal.withInitial(IpAddress::new);
+
+    private long fromSecond = Long.MIN_VALUE;
+    private long toSecond = Long.MAX_VALUE;
+    private boolean[] statuses;
+    private boolean[] methods;
+    private byte[][] pathPrefixes;
+    private int[] networkKinds;
+    private long[] networkHighs;
+    private long[] networkLows;
+    private int[] networkPrefixes;
+    private Boolean bot;
+
+    void setTimeRange(long fromSecond, long toSecond) {
+        this.fromSecond = fromSecond;
+        this.toSecond = toSecond;
+    }
+
+    void addStatusRange(int from, int to) {
+        if (from < 0 || to >= MAX_STATUS || from > to) {
+            throw new IllegalArgumentException("Неверный диапазон кодов ответа: " + from + "-" + to);
+        }
+        if (statuses == null) {
+            statuses = new boolean[MAX_STATUS];
+        }
+        Arrays.fill(statuses, from, to + 1, true);
+    }
+
+    void addMethod(HttpMethod method) {
+        if (methods == null) {
+            methods = new boolean[HttpMethod.values().length];
+        }
+        methods[method.ordinal()] = true;
+    }
+
+    void addPathPrefix(String prefix) {
+        byte[] bytes = prefix.getBytes(StandardCharsets.UTF_8);
+        pathPrefixes = pathPrefixes == null ? new byte[1][] : Arrays.copyOf(pathPrefixes, pathPrefixes.length + 1);
+        pathPrefixes[pathPrefixes.length - 1] = bytes;
+    }
+
+    void addNetwork(String cidr) {
+        int slash = cidr.indexOf('/');
+        IpAddress address = new IpAddress();
+        if (!address.parse(slash < 0 ? cidr : cidr.substring(0, slash))) {
+            throw new IllegalArgumentException("Неверный IP-адрес или подсеть: " + cidr);
+        }
+
+        int maxPrefix = address.kind == IpAddress.V4 ? 32 : 128;
+        int prefix = maxPrefix;
+        if (slash >= 0) {
+            try {
+                prefix = Integer.parseInt(cidr.substring(slash + 1));
+            } catch (NumberFormatException e) {
+                prefix = -1;
+            }
+            if (prefix < 0 || prefix > maxPrefix) {
+                throw new IllegalArgumentException("Неверная длина префикса подсети: " + cidr);
+            }
+        }
+
+        int n = networkKinds == null ? 0 : networkKinds.length;
+        networkKinds = n == 0 ? new int[1] : Arrays.copyOf(networkKinds, n + 1);
+        networkHighs = n == 0 ? new long[1] : Arrays.copyOf(networkHighs, n + 1);
+        networkLows = n == 0 ? new long[1] : Arrays.copyOf(networkLows, n + 1);
+        networkPrefixes = n == 0 ? new int[1] : Arrays.copyOf(networkPrefixes, n + 1);
+        networkKinds[n] = address.kind;
+        networkHighs[n] = address.high;
+        networkLows[n] = address.low;
+        networkPrefixes[n] = prefix;
+    }
+
+    void setBot(boolean bot) {
+        this.bot = bot;
+    }
+
+    boolean test(LogRecordView record) {
+        return testFields(record) && testUserAgent(record);
+    }
+
+    boolean testFields(LogRecordView record) {
+        long second = record.epochSecond;
+        if (second == TimestampDecoder.INVALID ? fromSecond != Long.MIN_VALUE || toSecond != Long.MAX_VALUE
+                : second < fromSecond || second >= toSecond) {
+            return false;
+        }
+        if (statuses != null) {
+            int code = record.responseCode;
+            if (code < 0 || code >= MAX_STATUS || !statuses[code]) {
+                return false;
+            }
+        }
+        if (methods != null && !methods[record.method.ordinal()]) {
+            return false;
+        }
+        if (pathPrefixes != null && !matchesPath(record.buffer, record.pathStart, record.pathEnd)) {
+            return false;
+        }
+        return networkKinds == null || matchesNetwork(record);
+    }
+
+    boolean testUserAgent(LogRecordView record) {
+        return bot == null || record.getUserAgent().isBot() == bot;
+    }
+
+    private boolean matchesPath(ByteBuffer buffer, int start, int end) {
+        if (start < 0) {
+            buffer = ByteBuffer.wrap(new byte[]{'/'});
+            start = 0;
+            end = 1;
+        }
+        for (byte[] prefix : pathPrefixes) {
+            if (end - start < prefix.length) {
+                continue;
+            }
+            int i = 0;
+            while (i < prefix.length && buffer.get(start + i) == prefix[i]) {
+                i++;
+            }
+            if (i == prefix.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean matchesNetwork(LogRecordView record) {
+        IpAddress ipAddress = IP_ADDRESS.get();
+        if (!record.parseIpAddress(ipAddress)) {
+            return false;
+        }
+        for (int n = 0; n < networkKinds.length; n++) {
+            if (networkKinds[n] != ipAddress.kind) {
+                continue;
+            }
+            int prefix = networkPrefixes[n];
+            if (ipAddress.kind == IpAddress.V4) {
+                if (prefix == 0 || ((ipAddress.low ^ networkLows[n]) >>> (32 - prefix)) == 0) {
+                    return true;
+                }
+            } else if (prefix <= 64) {
+                if (prefix == 0 || ((ipAddress.high ^ networkHighs[n]) >>> (64 - prefix)) == 0) {
+                    return true;
+                }
+            } else if (ipAddress.high == networkHighs[n] && ((ipAddress.low ^ networkLows[n]) >>> (128 - prefix)) == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,5 @@
+package org.example;
+
+interface RecordHandler {
+    void handle(LogRecordView record);
+}
@@ -0,0 +1,47 @@
+package org.example;
+
+public final class SketchSettings {
+    private final double distinctError;
+    private final double frequencyError;
+    private final double failureProbability;
+    private final int heavyHitters;
+
+    public SketchSettings(double distinctError, double frequencyError, double failureProbability, int heavyHitters) {
+        if (distinctError <= 0 || distinctError >= 1) {
+            throw new IllegalArgumentException("Погрешность уникальных значений должна быть в интервале (0, 1): " + distinctError);
+        }
+        if (frequencyError <= 0 || frequencyError >= 1) {
+            throw new IllegalArgumentException("Погрешность частот должна быть в интервале (0, 1): " + frequencyError);
+        }
+        if (failureProbability <= 0 || failureProbability >= 1) {
+            throw new IllegalArgumentException("Вероятность ошибки должна быть в интервале (0, 1): " + failureProbability);
+        }
+        if (heavyHitters < 1) {
+            throw new IllegalArgumentException("Размер списка самых активных пользователей должен быть положительным: " + heavyHitters);
+        }
+        this.distinctError = distinctError;
+        this.frequencyError = frequencyError;
+        this.failureProbability = failureProbability;
+        this.heavyHitters = heavyHitters;
+    }
+
+    public static SketchSettings defaults() {
+        return new SketchSettings(0.01, 0.0001, 0.01, 100);
+    }
+
+    public double getDistinctError() {
+        return distinctError;
+    }
+
+    public double getFrequencyError() {
+        return frequencyError;
+    }
+
+    public double getFailureProbability() {
+        return failureProbability;
+    }
+
+    public int getHeavyHitters() {
+        return heavyHitters;
+    }
+}
@@ -0,0 +1,69 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+final class SliceCache<V> {
+    interface Loader<V> {
+        V load(ByteBuffer buffer, int start, int end);
+    }
+
+    private final byte[][] keys;
+    private final Object[] values;
+    private final int mask;
+    private final Loader<V> loader;
+
+    SliceCache(int capacity, Loader<V> loader) {
+        int size = Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1;
+        this.keys = new byte[size][];
+        this.values = new Object[size];
+        this.mask = size - 1;
+        this.loader = loader;
+    }
+
+    static SliceCache<String> strings(int capacity) {
+        return new SliceCache<>(capacity, SliceCache::decode);
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(ByteBuffer buffer, int start, int end) {
+        int slot = hash(buffer, start, end) & mask;
+        byte[] key = keys[slot];
+        if (key != null && matches(key, buffer, start, end)) {
+            return (V) values[slot];
+        }
+
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        V value = loader.load(buffer, start, end);
+        keys[slot] = bytes;
+        values[slot] = value;
+        return value;
+    }
+
+    static String decode(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static int hash(ByteBuffer buffer, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + buffer.get(i);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    static boolean matches(byte[] key, ByteBuffer buffer, int start, int end) {
+        if (key.length != end - start) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] != buffer.get(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
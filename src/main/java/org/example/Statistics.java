@@ -1,212 +1,645 @@
 package org.example;
 
+import java.nio.ByteBuffer;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.time.ZoneOffset;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class Statistics {
+    private static final int REFERER_CACHE_SIZE = 4096;
+    private static final int NO_DOMAIN = -2;
+    private static final int TOP_SIZE = 100;
+    private static final int PRINTED_TOP_SIZE = 5;
+    private static final int LATENCY_ENDPOINTS = 1024;
+    private static final Comparator<Map.Entry<String, Integer>> BY_COUNT = Map.Entry.<String, Integer>comparingByValue().reversed();
+    private static final Comparator<Map.Entry<String, Integer>> BY_COUNT_AND_KEY = BY_COUNT.thenComparing(Map.Entry.comparingByKey());
+
     private int totalTraffic;
-    private LocalDateTime minTime;
-    private LocalDateTime maxTime;
+    private long minTime;
+    private long maxTime;
     private int entryCount;
-    private Set<String> existingPages;
-    private Set<String> nonExistingPages;
-    private Map<String, Integer> osCounts;
-    private Map<String, Integer> browserCounts;
+    private ByteDictionary pages;
+    private BitSet existingPages;
+    private BitSet nonExistingPages;
+    private int[] existingPageCounts;
+    private int[] nonExistingPageCounts;
+    private int[] osCounts;
+    private int[] browserCounts;
     private int realUserVisits;
     private int errorRequests;
-    private Set<String> uniqueRealUserIps;
-    private Map<Long, Integer> visitsPerSecond;
-    private Set<String> refererDomains;
-    private Map<String, Integer> visitsPerUser;
+    private LongIntMap visitsPerSecond;
+    private int peakVisits;
+    private long peakSecond;
+    private ByteDictionary refererDomains;
+    private int[] refererDomainCounts;
+    private final ClockCache<String> refererDomainCache = new ClockCache<>(REFERER_CACHE_SIZE);
+    private final ByteBuffer domainScratch = ByteBuffer.allocate(MappedLogReader.MAX_LINE_LENGTH);
+    private LongIntMap ipv4Visits;
+    private LongPairIntMap ipv6Visits;
+    private ByteDictionary otherIps;
+    private int[] otherIpCounts;
+    private final TopN topExistingPages;
+    private final TopN topNonExistingPages;
+    private final TopN topRefererDomains;
+    private final TopN topIpv4 = new TopN(TOP_SIZE);
+    private final TopN topIpv6 = new TopN(TOP_SIZE);
+    private final TopN topOtherIps;
+    private final LatencyTable requestTimes = new LatencyTable(LATENCY_ENDPOINTS);
+    private final LatencyTable upstreamTimes = new LatencyTable(LATENCY_ENDPOINTS);
+    private final TimeSeries timeSeries = new TimeSeries(TimeWindow.maxSeconds());
+    private final IpAddress ipAddress = new IpAddress();
+    private final ApproximateCounters approximate;
+    private final BotDetector botDetector;
+    private int suspiciousRequests;
+    private final LongIntMap suspiciousIps = new LongIntMap();
 
     public Statistics() {
+        this(null, (BotDetector) null);
+    }
+
+    public Statistics(SketchSettings sketchSettings) {
+        this(sketchSettings, (BotDetector) null);
+    }
+
+    public Statistics(SketchSettings sketchSettings, BotDetectorSettings botDetectorSettings) {
+        this(sketchSettings, botDetectorSettings == null ? null : new BotDetector(botDetectorSettings));
+    }
+
+    private Statistics(SketchSettings sketchSettings, BotDetector botDetector) {
+        this.approximate = sketchSettings == null ? null : new ApproximateCounters(sketchSettings);
+        this.botDetector = botDetector;
         this.totalTraffic = 0;
-        this.minTime = null;
-        this.maxTime = null;
+        this.minTime = Long.MAX_VALUE;
+        this.maxTime = Long.MIN_VALUE;
         this.entryCount = 0;
-        this.existingPages = new HashSet<>();
-        this.nonExistingPages = new HashSet<>();
-        this.osCounts = new HashMap<>();
-        this.browserCounts = new HashMap<>();
+        this.pages = new ByteDictionary();
+        this.topExistingPages = new TopN(TOP_SIZE, pages);
+        this.topNonExistingPages = new TopN(TOP_SIZE, pages);
+        this.existingPages = new BitSet();
+        this.nonExistingPages = new BitSet();
+        this.existingPageCounts = new int[64];
+        this.nonExistingPageCounts = new int[64];
+        this.osCounts = new int[UserAgentClassifier.OS_TYPES.length];
+        this.browserCounts = new int[UserAgentClassifier.BROWSERS.length];
         this.realUserVisits = 0;
         this.errorRequests = 0;
-        this.uniqueRealUserIps = new HashSet<>();
-        this.visitsPerSecond = new HashMap<>();
-        this.refererDomains = new HashSet<>();
-        this.visitsPerUser = new HashMap<>();
+        this.visitsPerSecond = new LongIntMap();
+        this.peakSecond = LongIntMap.NO_KEY;
+        this.refererDomains = new ByteDictionary();
+        this.topRefererDomains = new TopN(TOP_SIZE, refererDomains);
+        this.refererDomainCounts = new int[64];
+        this.ipv4Visits = new LongIntMap();
+        this.ipv6Visits = new LongPairIntMap();
+        this.otherIps = new ByteDictionary();
+        this.topOtherIps = new TopN(TOP_SIZE, otherIps);
+        this.otherIpCounts = new int[64];
     }
 
     public void addEntry(LogEntry entry) {
-        totalTraffic += entry.getResponseSize();
-        entryCount++;
+        UserAgent userAgent = entry.getUserAgent();
+        int responseCode = entry.getResponseCode();
+        long secondTimestamp = entry.getEpochSecond();
 
-        LocalDateTime entryTime = entry.getTime();
+        addCounters(secondTimestamp, responseCode, entry.getResponseSize(), userAgent);
 
-        if (minTime == null || entryTime.isBefore(minTime)) {
-            minTime = entryTime;
+        if (responseCode == 200) {
+            addExistingPage(entry.getPath());
         }
 
-        if (maxTime == null || entryTime.isAfter(maxTime)) {
-            maxTime = entryTime;
+        if (responseCode == 404) {
+            addNonExistingPage(entry.getPath());
         }
 
-        if (entry.getResponseCode() == 200) {
-            existingPages.add(entry.getPath());
+        if (!userAgent.isBot()) {
+            String ip = entry.getIpAddress();
+            addUserRequest(secondTimestamp, responseCode, ipAddress.parse(ip) ? null : ip);
         }
 
-        if (entry.getResponseCode() == 404) {
-            nonExistingPages.add(entry.getPath());
+        addReferer(entry.getReferer());
+        addLatency(entry.getPath(), responseCode, entry.getRequestTimeMicros(), entry.getUpstreamTimeMicros());
+    }
+
+    public void addEntry(LogRecordView record) {
+        UserAgent userAgent = record.getUserAgent();
+        int responseCode = record.getResponseCode();
+        long secondTimestamp = record.getEpochSecond();
+
+        addCounters(secondTimestamp, responseCode, record.getResponseSize(), userAgent);
+
+        if (responseCode == 200) {
+            addExistingPage(record);
         }
 
-        String os = entry.getUserAgent().getOsType();
-        osCounts.put(os, osCounts.getOrDefault(os, 0) + 1);
+        if (responseCode == 404) {
+            addNonExistingPage(record);
+        }
 
-        String browser = entry.getUserAgent().getBrowser();
-        browserCounts.put(browser, browserCounts.getOrDefault(browser, 0) + 1);
+        if (!userAgent.isBot()) {
+            addUserRequest(secondTimestamp, responseCode, record.parseIpAddress(ipAddress) ? null : record.getIpAddress());
+        }
 
-        boolean isBot = entry.getUserAgent().isBot();
-        int responseCode = entry.getResponseCode();
+        addReferer(record);
+        addLatency(record);
+    }
+
+    void addEntry(CachedRecord record) {
+        UserAgent userAgent = record.userAgent;
+        int responseCode = record.responseCode;
+
+        addCounters(record.epochSecond, responseCode, record.responseSize, userAgent);
+
+        if (responseCode == 200) {
+            addExistingPage(record.path);
+        }
+
+        if (responseCode == 404) {
+            addNonExistingPage(record.path);
+        }
+
+        if (!userAgent.isBot()) {
+            ipAddress.kind = record.ipKind;
+            ipAddress.high = record.ipHigh;
+            ipAddress.low = record.ipLow;
+            addUserRequest(record.epochSecond, responseCode, record.ipKind == IpAddress.INVALID ? record.ip : null);
+        }
+
+        addRefererDomain(record.refererDomain);
+        addLatency(record.path, responseCode, record.requestTimeMicros, record.upstreamTimeMicros);
+    }
+
+    public Statistics newShard() {
+        return new Statistics(approximate == null ? null : approximate.getSettings(), botDetector);
+    }
+
+    public boolean isApproximate() {
+        return approximate != null;
+    }
+
+    public void merge(Statistics other) {
+        if ((approximate == null) != (other.approximate == null)) {
+            throw new IllegalArgumentException("Нельзя объединить точную и приближенную статистику");
+        }
 
-        if (responseCode >= 400 && responseCode < 600) {
+        minTime = Math.min(minTime, other.minTime);
+        maxTime = Math.max(maxTime, other.maxTime);
+
+        totalTraffic += other.totalTraffic;
+        entryCount += other.entryCount;
+        realUserVisits += other.realUserVisits;
+        errorRequests += other.errorRequests;
+        suspiciousRequests += other.suspiciousRequests;
+        suspiciousIps.addAll(other.suspiciousIps);
+
+        for (int id = other.existingPages.nextSetBit(0); id >= 0; id = other.existingPages.nextSetBit(id + 1)) {
+            countExistingPage(pages.intern(other.pages, id), other.existingPageCounts[id]);
+        }
+        for (int id = other.nonExistingPages.nextSetBit(0); id >= 0; id = other.nonExistingPages.nextSetBit(id + 1)) {
+            countNonExistingPage(pages.intern(other.pages, id), other.nonExistingPageCounts[id]);
+        }
+        for (int id = 0; id < other.refererDomains.getSize(); id++) {
+            countRefererDomain(refererDomains.intern(other.refererDomains, id), other.refererDomainCounts[id]);
+        }
+
+        for (int i = 0; i < osCounts.length; i++) {
+            osCounts[i] += other.osCounts[i];
+        }
+        for (int i = 0; i < browserCounts.length; i++) {
+            browserCounts[i] += other.browserCounts[i];
+        }
+        visitsPerSecond.addAll(other.visitsPerSecond);
+        other.visitsPerSecond.forEach((second, count) -> updatePeak(second, visitsPerSecond.get(second)));
+        ipv4Visits.addAll(other.ipv4Visits);
+        other.ipv4Visits.forEach((ip, count) -> topIpv4.offer(0, ip, ipv4Visits.get(ip)));
+        ipv6Visits.addAll(other.ipv6Visits);
+        other.ipv6Visits.forEach((high, low, count) -> topIpv6.offer(high, low, ipv6Visits.get(high, low)));
+        for (int id = 0; id < other.otherIps.getSize(); id++) {
+            countOtherIp(otherIps.intern(other.otherIps, id), other.otherIpCounts[id]);
+        }
+        timeSeries.merge(other.timeSeries);
+        requestTimes.merge(other.requestTimes);
+        upstreamTimes.merge(other.upstreamTimes);
+
+        if (approximate != null) {
+            approximate.merge(other.approximate);
+        }
+    }
+
+    private void addCounters(long secondTimestamp, int responseCode, int responseSize, UserAgent userAgent) {
+        totalTraffic += responseSize;
+        entryCount++;
+
+        boolean error = responseCode >= 400 && responseCode < 600;
+
+        if (secondTimestamp != TimestampDecoder.INVALID) {
+            minTime = Math.min(minTime, secondTimestamp);
+            maxTime = Math.max(maxTime, secondTimestamp);
+            timeSeries.add(secondTimestamp, error, responseSize);
+        }
+
+        osCounts[userAgent.getOsOrdinal()]++;
+        browserCounts[userAgent.getBrowserOrdinal()]++;
+
+        if (error) {
             errorRequests++;
         }
+    }
 
-        if (!isBot) {
-            realUserVisits++;
-            uniqueRealUserIps.add(entry.getIpAddress());
+    private void addUserRequest(long secondTimestamp, int responseCode, String unparsedIp) {
+        if (botDetector != null) {
+            long hash = ipHash(unparsedIp);
+            if (botDetector.check(hash, secondTimestamp, responseCode)) {
+                suspiciousRequests++;
+                suspiciousIps.add(hash == LongIntMap.NO_KEY ? 0 : hash, 1);
+                return;
+            }
+        }
+        addRealUserVisit(secondTimestamp);
+        addUserIp(unparsedIp);
+    }
 
-            long secondTimestamp = entryTime.toEpochSecond(java.time.ZoneOffset.UTC);
-            visitsPerSecond.put(secondTimestamp, visitsPerSecond.getOrDefault(secondTimestamp, 0) + 1);
-            String ip = entry.getIpAddress();
-            visitsPerUser.put(ip, visitsPerUser.getOrDefault(ip, 0) + 1);
+    private void addRealUserVisit(long secondTimestamp) {
+        realUserVisits++;
+        if (secondTimestamp != TimestampDecoder.INVALID) {
+            updatePeak(secondTimestamp, visitsPerSecond.add(secondTimestamp, 1));
         }
+    }
 
-        String referer = entry.getReferer();
-        if (referer != null && !referer.isEmpty() && !referer.equals("-")) {
-            String domain = extractDomain(referer);
-            if (domain != null && !domain.isEmpty()) {
-                refererDomains.add(domain);
+    private void updatePeak(long second, int visits) {
+        if (visits > peakVisits || (visits == peakVisits && second < peakSecond)) {
+            peakVisits = visits;
+            peakSecond = second;
+        }
+    }
+
+    private void addExistingPage(String path) {
+        if (approximate != null) {
+            approximate.existingPages.add(Hashing.hash(path));
+        } else {
+            countExistingPage(pages.intern(path), 1);
+        }
+    }
+
+    private void addExistingPage(LogRecordView record) {
+        if (approximate != null) {
+            approximate.existingPages.add(Hashing.hash(record.getPath()));
+        } else {
+            countExistingPage(record.internPath(pages), 1);
+        }
+    }
+
+    private void addNonExistingPage(String path) {
+        if (approximate != null) {
+            approximate.nonExistingPages.add(Hashing.hash(path));
+        } else {
+            countNonExistingPage(pages.intern(path), 1);
+        }
+    }
+
+    private void addNonExistingPage(LogRecordView record) {
+        if (approximate != null) {
+            approximate.nonExistingPages.add(Hashing.hash(record.getPath()));
+        } else {
+            countNonExistingPage(record.internPath(pages), 1);
+        }
+    }
+
+    private void countExistingPage(int id, int count) {
+        existingPages.set(id);
+        existingPageCounts = ensureCapacity(existingPageCounts, id);
+        topExistingPages.offer(0, id, existingPageCounts[id] += count);
+    }
+
+    private void countNonExistingPage(int id, int count) {
+        nonExistingPages.set(id);
+        nonExistingPageCounts = ensureCapacity(nonExistingPageCounts, id);
+        topNonExistingPages.offer(0, id, nonExistingPageCounts[id] += count);
+    }
+
+    private void addUserIp(String unparsedIp) {
+        if (approximate != null) {
+            int slot = approximate.addUserVisit(ipHash(unparsedIp));
+            if (slot >= 0) {
+                approximate.mostActiveUsers.setLabel(slot, unparsedIp != null ? unparsedIp : formatIpAddress());
             }
+            return;
+        }
+
+        if (unparsedIp != null) {
+            countOtherIp(otherIps.intern(unparsedIp), 1);
+        } else {
+            addPackedIpVisit();
         }
     }
 
-    private String extractDomain(String url) {
-        if (url == null || url.isEmpty() || url.equals("-")) {
-            return null;
+    private long ipHash(String unparsedIp) {
+        if (unparsedIp != null) {
+            return Hashing.hash(unparsedIp);
         }
+        return ipAddress.kind == IpAddress.V4 ? Hashing.hash(ipAddress.low) : Hashing.hash(ipAddress.high, ipAddress.low);
+    }
 
-        try {
-            Pattern pattern = Pattern.compile("^(https?://)?([^/?#]+)");
-            Matcher matcher = pattern.matcher(url);
+    private String formatIpAddress() {
+        return ipAddress.kind == IpAddress.V4 ? IpAddress.formatV4(ipAddress.low) : IpAddress.formatV6(ipAddress.high, ipAddress.low);
+    }
 
-            if (matcher.find()) {
-                String fullHost = matcher.group(2);
+    private void addPackedIpVisit() {
+        if (ipAddress.kind == IpAddress.V4) {
+            topIpv4.offer(0, ipAddress.low, ipv4Visits.add(ipAddress.low, 1));
+        } else {
+            topIpv6.offer(ipAddress.high, ipAddress.low, ipv6Visits.add(ipAddress.high, ipAddress.low, 1));
+        }
+    }
 
-                if (fullHost.startsWith("www.")) {
-                    fullHost = fullHost.substring(4);
-                }
+    private void countOtherIp(int id, int count) {
+        otherIpCounts = ensureCapacity(otherIpCounts, id);
+        topOtherIps.offer(0, id, otherIpCounts[id] += count);
+    }
 
-                int portIndex = fullHost.indexOf(':');
-                if (portIndex > 0) {
-                    fullHost = fullHost.substring(0, portIndex);
-                }
+    private void addReferer(String referer) {
+        if (referer == null || referer.isEmpty() || referer.equals("-")) {
+            return;
+        }
+        if (approximate != null) {
+            addRefererDomain(extractDomain(referer));
+            return;
+        }
+
+        int id = refererDomainCache.get(referer);
+        if (id == ClockCache.MISSING) {
+            String domain = extractDomain(referer);
+            id = domain == null ? NO_DOMAIN : refererDomains.intern(domain);
+            refererDomainCache.put(referer, id);
+        }
+        countRefererDomain(id, 1);
+    }
 
-                return fullHost;
+    private void addReferer(LogRecordView record) {
+        if (approximate != null) {
+            addReferer(record.getReferer());
+            return;
+        }
+        if (record.refererStart < 0) {
+            return;
+        }
+
+        ByteBuffer buffer = record.buffer;
+        long bounds = DomainScanner.hostBounds(buffer, record.refererStart, record.refererEnd);
+        if (bounds == DomainScanner.NONE) {
+            return;
+        }
+
+        int start = DomainScanner.start(bounds);
+        int end = DomainScanner.end(bounds);
+        if (DomainScanner.hasUpperCase(buffer, start, end)) {
+            for (int i = start; i < end; i++) {
+                domainScratch.put(i - start, (byte) DomainScanner.lower(buffer.get(i)));
             }
-        } catch (Exception e) {
+            buffer = domainScratch;
+            end -= start;
+            start = 0;
+        }
+        countRefererDomain(refererDomains.intern(buffer, start, end), 1);
+    }
 
+    private void addRefererDomain(String domain) {
+        if (domain != null && !domain.isEmpty()) {
+            if (approximate != null) {
+                approximate.refererDomains.add(Hashing.hash(domain));
+            } else {
+                countRefererDomain(refererDomains.intern(domain), 1);
+            }
         }
-        return null;
     }
 
-    public int getPeakVisitsPerSecond() {
-        if (visitsPerSecond.isEmpty()) {
-            return 0;
+    private void countRefererDomain(int id, int count) {
+        if (id < 0) {
+            return;
         }
+        refererDomainCounts = ensureCapacity(refererDomainCounts, id);
+        topRefererDomains.offer(0, id, refererDomainCounts[id] += count);
+    }
+
+    private void addLatency(String path, int responseCode, long requestTime, long upstreamTime) {
+        if (requestTime != LogRecordView.NO_DURATION) {
+            requestTimes.add(path, responseCode, requestTime);
+        }
+        if (upstreamTime != LogRecordView.NO_DURATION) {
+            upstreamTimes.add(path, responseCode, upstreamTime);
+        }
+    }
 
-        return visitsPerSecond.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+    private void addLatency(LogRecordView record) {
+        if (record.pathStart < 0) {
+            addLatency("/", record.responseCode, record.requestTimeMicros, record.upstreamTimeMicros);
+            return;
+        }
+        if (record.requestTimeMicros != LogRecordView.NO_DURATION) {
+            requestTimes.add(record.buffer, record.pathStart, record.pathEnd, record.responseCode, record.requestTimeMicros);
+        }
+        if (record.upstreamTimeMicros != LogRecordView.NO_DURATION) {
+            upstreamTimes.add(record.buffer, record.pathStart, record.pathEnd, record.responseCode, record.upstreamTimeMicros);
+        }
+    }
+
+    private static int[] ensureCapacity(int[] counts, int id) {
+        return id < counts.length ? counts : Arrays.copyOf(counts, Math.max(counts.length << 1, id + 1));
+    }
+
+    static String extractDomain(String url) {
+        if (url == null || url.isEmpty() || url.equals("-")) {
+            return null;
+        }
+
+        long bounds = DomainScanner.hostBounds(url, 0, url.length());
+        if (bounds == DomainScanner.NONE) {
+            return null;
+        }
+        return DomainScanner.lowerCase(url, DomainScanner.start(bounds), DomainScanner.end(bounds));
+    }
+
+    public int getPeakVisitsPerSecond() {
+        return peakVisits;
     }
 
     public LocalDateTime getPeakVisitsTime() {
-        if (visitsPerSecond.isEmpty()) {
+        if (peakSecond == LongIntMap.NO_KEY) {
             return null;
         }
 
-        long peakSecond = visitsPerSecond.entrySet().stream().max(Map.Entry.comparingByValue()).map(Map.Entry::getKey).orElse(0L);
+        return LocalDateTime.ofEpochSecond(peakSecond, 0, ZoneOffset.UTC);
+    }
+
+    public WindowSnapshot getWindowSnapshot(TimeWindow window) {
+        return timeSeries.snapshot(window);
+    }
+
+    public double getRequestsPerSecond(TimeWindow window) {
+        return getWindowSnapshot(window).getRequestsPerSecond();
+    }
 
-        return LocalDateTime.ofEpochSecond(peakSecond, 0, java.time.ZoneOffset.UTC);
+    public double getErrorsPerSecond(TimeWindow window) {
+        return getWindowSnapshot(window).getErrorsPerSecond();
+    }
+
+    public double getBytesPerSecond(TimeWindow window) {
+        return getWindowSnapshot(window).getBytesPerSecond();
+    }
+
+    public int getPeakRequestsPerSecond(TimeWindow window) {
+        return getWindowSnapshot(window).getPeakRequestsPerSecond();
+    }
+
+    public int getRequestsPerSecondPercentile(TimeWindow window, double percentile) {
+        return getWindowSnapshot(window).getRequestsPerSecondPercentile(percentile);
     }
 
     public Set<String> getRefererDomains() {
-        return new HashSet<>(refererDomains);
+        Set<String> result = new HashSet<>();
+        for (int id = 0; id < refererDomains.getSize(); id++) {
+            result.add(refererDomains.get(id));
+        }
+        return result;
+    }
+
+    public Map<String, Integer> getRefererDomainCounts() {
+        Map<String, Integer> result = new HashMap<>();
+        for (int id = 0; id < refererDomains.getSize(); id++) {
+            result.put(refererDomains.get(id), refererDomainCounts[id]);
+        }
+        return result;
     }
 
     public int getRefererDomainsCount() {
-        return refererDomains.size();
+        if (approximate != null) {
+            return (int) approximate.refererDomains.estimate();
+        }
+        return refererDomains.getSize();
     }
 
     public int getMaxVisitsPerUser() {
-        if (visitsPerUser.isEmpty()) {
-            return 0;
+        if (approximate != null) {
+            return (int) approximate.mostActiveUsers.topCount();
         }
 
-        return visitsPerUser.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+        List<Map.Entry<String, Integer>> top = getTopUsers();
+        return top.isEmpty() ? 0 : top.get(0).getValue();
     }
 
     public String getMostActiveUserIP() {
-        if (visitsPerUser.isEmpty()) {
-            return null;
+        if (approximate != null) {
+            return approximate.mostActiveUsers.topLabel();
+        }
+
+        List<Map.Entry<String, Integer>> top = getTopUsers();
+        return top.isEmpty() ? null : top.get(0).getKey();
+    }
+
+    public List<Map.Entry<String, Integer>> getTopUsers() {
+        List<Map.Entry<String, Integer>> result = new ArrayList<>();
+        if (approximate != null) {
+            approximate.topUsers().forEach((ip, count) -> result.add(new AbstractMap.SimpleImmutableEntry<>(ip, count.intValue())));
+            result.sort(BY_COUNT_AND_KEY);
+            return Collections.unmodifiableList(result);
         }
 
-        return visitsPerUser.entrySet().stream().max(Map.Entry.comparingByValue()).map(Map.Entry::getKey).orElse(null);
+        topIpv4.forEachDescending((high, low, count) -> result.add(new AbstractMap.SimpleImmutableEntry<>(IpAddress.formatV4(low), count)));
+        topIpv6.forEachDescending((high, low, count) -> result.add(new AbstractMap.SimpleImmutableEntry<>(IpAddress.formatV6(high, low), count)));
+        result.addAll(ranked(topOtherIps, otherIps));
+        result.sort(BY_COUNT);
+        return Collections.unmodifiableList(result.subList(0, Math.min(TOP_SIZE, result.size())));
+    }
+
+    public List<Map.Entry<String, Integer>> getTopPages() {
+        return ranked(topExistingPages, pages);
+    }
+
+    public List<Map.Entry<String, Integer>> getTopNonExistingPages() {
+        return ranked(topNonExistingPages, pages);
+    }
+
+    public List<Map.Entry<String, Integer>> getTopRefererDomains() {
+        return ranked(topRefererDomains, refererDomains);
+    }
+
+    private static List<Map.Entry<String, Integer>> ranked(TopN top, ByteDictionary dictionary) {
+        List<Map.Entry<String, Integer>> result = new ArrayList<>(top.size());
+        top.forEachDescending((high, low, count) -> result.add(new AbstractMap.SimpleImmutableEntry<>(dictionary.get((int) low), count)));
+        result.sort(BY_COUNT_AND_KEY);
+        return Collections.unmodifiableList(result);
+    }
+
+    public LatencySummary getRequestTime() {
+        return requestTimes.isEmpty() ? null : requestTimes.getTotal("request_time");
+    }
+
+    public LatencySummary getUpstreamTime() {
+        return upstreamTimes.isEmpty() ? null : upstreamTimes.getTotal("upstream_response_time");
+    }
+
+    public List<LatencySummary> getRequestTimeByPath() {
+        return requestTimes.byEndpoint();
+    }
+
+    public List<LatencySummary> getUpstreamTimeByPath() {
+        return upstreamTimes.byEndpoint();
+    }
+
+    public List<LatencySummary> getRequestTimeByStatus() {
+        return requestTimes.byStatus();
+    }
+
+    public List<LatencySummary> getUpstreamTimeByStatus() {
+        return upstreamTimes.byStatus();
     }
 
     public Map<Long, Integer> getVisitsPerSecond() {
-        return new HashMap<>(visitsPerSecond);
+        return visitsPerSecond.asMap();
     }
 
     public Map<String, Integer> getVisitsPerUser() {
-        return new HashMap<>(visitsPerUser);
+        if (approximate != null) {
+            Map<String, Integer> result = new HashMap<>();
+            approximate.topUsers().forEach((ip, count) -> result.put(ip, count.intValue()));
+            return result;
+        }
+        return new VisitsPerUserView();
     }
 
     public double getAverageVisitsPerHour() {
-        if (minTime == null || maxTime == null || realUserVisits == 0) {
+        if (!hasTimeRange() || realUserVisits == 0) {
             return 0.0;
         }
 
-        long hoursBetween = ChronoUnit.HOURS.between(minTime, maxTime);
-        if (hoursBetween < 1) {
-            hoursBetween = 1;
-        }
-
-        return (double) realUserVisits / hoursBetween;
+        return (double) realUserVisits / getHoursBetween();
     }
 
     public double getAverageErrorsPerHour() {
-        if (minTime == null || maxTime == null || errorRequests == 0) {
+        if (!hasTimeRange() || errorRequests == 0) {
             return 0.0;
         }
 
-        long hoursBetween = ChronoUnit.HOURS.between(minTime, maxTime);
-        if (hoursBetween < 1) {
-            hoursBetween = 1;
-        }
-
-        return (double) errorRequests / hoursBetween;
+        return (double) errorRequests / getHoursBetween();
     }
 
     public double getAverageVisitsPerUser() {
-        if (uniqueRealUserIps.isEmpty() || realUserVisits == 0) {
+        if (getUniqueRealUsersCount() == 0 || realUserVisits == 0) {
             return 0.0;
         }
 
-        return (double) realUserVisits / uniqueRealUserIps.size();
+        return (double) realUserVisits / getUniqueRealUsersCount();
     }
 
     public int getRealUserVisits() {
@@ -217,78 +650,108 @@ public class Statistics {
         return errorRequests;
     }
 
+    public boolean isDetectingBots() {
+        return botDetector != null;
+    }
+
+    public int getSuspiciousRequests() {
+        return suspiciousRequests;
+    }
+
+    public long getSuspiciousIpCount() {
+        return suspiciousIps.size();
+    }
+
     public int getUniqueRealUsersCount() {
-        return uniqueRealUserIps.size();
+        if (approximate != null) {
+            return (int) approximate.realUserIps.estimate();
+        }
+        return ipv4Visits.size() + ipv6Visits.size() + otherIps.getSize();
     }
 
     public Set<String> getExistingPages() {
-        return new HashSet<>(existingPages);
+        return pageSet(existingPages);
     }
 
     public Set<String> getNonExistingPages() {
-        return new HashSet<>(nonExistingPages);
+        return pageSet(nonExistingPages);
     }
 
-    public Map<String, Double> getOsStatistics() {
-        Map<String, Double> result = new HashMap<>();
-
-        if (osCounts.isEmpty()) {
-            return result;
+    private Set<String> pageSet(BitSet ids) {
+        Set<String> result = new HashSet<>();
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            result.add(pages.get(id));
         }
+        return result;
+    }
 
-        int totalOsEntries = 0;
-        for (int count : osCounts.values()) {
-            totalOsEntries += count;
-        }
+    public ByteDictionary getPageDictionary() {
+        return pages;
+    }
 
-        for (Map.Entry<String, Integer> entry : osCounts.entrySet()) {
-            double proportion = (double) entry.getValue() / totalOsEntries;
-            result.put(entry.getKey(), proportion);
-        }
+    public ByteDictionary getRefererDomainDictionary() {
+        return refererDomains;
+    }
 
-        return result;
+    public Map<String, Double> getOsStatistics() {
+        return proportions(UserAgentClassifier.OS_TYPES, osCounts);
     }
 
     public Map<String, Double> getBrowserStatistics() {
-        Map<String, Double> result = new HashMap<>();
+        return proportions(UserAgentClassifier.BROWSERS, browserCounts);
+    }
 
-        if (browserCounts.isEmpty()) {
-            return result;
-        }
+    public Map<String, Integer> getOsRawStatistics() {
+        return rawCounts(UserAgentClassifier.OS_TYPES, osCounts);
+    }
 
-        int totalBrowserEntries = 0;
-        for (int count : browserCounts.values()) {
-            totalBrowserEntries += count;
+    public Map<String, Integer> getBrowserRawStatistics() {
+        return rawCounts(UserAgentClassifier.BROWSERS, browserCounts);
+    }
+
+    private static Map<String, Double> proportions(String[] names, int[] counts) {
+        Map<String, Double> result = new HashMap<>();
+
+        int total = 0;
+        for (int count : counts) {
+            total += count;
         }
 
-        for (Map.Entry<String, Integer> entry : browserCounts.entrySet()) {
-            double proportion = (double) entry.getValue() / totalBrowserEntries;
-            result.put(entry.getKey(), proportion);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                result.put(names[i], (double) counts[i] / total);
+            }
         }
 
         return result;
     }
 
-    public Map<String, Integer> getOsRawStatistics() {
-        return new HashMap<>(osCounts);
-    }
-
-    public Map<String, Integer> getBrowserRawStatistics() {
-        return new HashMap<>(browserCounts);
+    private static Map<String, Integer> rawCounts(String[] names, int[] counts) {
+        Map<String, Integer> result = new HashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                result.put(names[i], counts[i]);
+            }
+        }
+        return result;
     }
 
     public double getTrafficRate() {
-        if (minTime == null || maxTime == null || entryCount == 0) {
+        if (!hasTimeRange() || entryCount == 0) {
             return 0.0;
         }
 
-        long hoursBetween = ChronoUnit.HOURS.between(minTime, maxTime);
-
-        if (hoursBetween < 1) {
-            hoursBetween = 1;
-        }
         long unsignedTotal = totalTraffic & 0xFFFFFFFFL;
-        return (double) unsignedTotal / hoursBetween;
+        return (double) unsignedTotal / getHoursBetween();
+    }
+
+    private boolean hasTimeRange() {
+        return minTime <= maxTime;
+    }
+
+    private long getHoursBetween() {
+        long hoursBetween = (maxTime - minTime) / 3600;
+        return hoursBetween < 1 ? 1 : hoursBetween;
     }
 
     public int getTotalTraffic() {
@@ -296,11 +759,11 @@ public class Statistics {
     }
 
     public LocalDateTime getMinTime() {
-        return minTime;
+        return hasTimeRange() ? LocalDateTime.ofEpochSecond(minTime, 0, ZoneOffset.UTC) : null;
     }
 
     public LocalDateTime getMaxTime() {
-        return maxTime;
+        return hasTimeRange() ? LocalDateTime.ofEpochSecond(maxTime, 0, ZoneOffset.UTC) : null;
     }
 
     public int getEntryCount() {
@@ -308,30 +771,48 @@ public class Statistics {
     }
 
     public int getExistingPagesCount() {
-        return existingPages.size();
+        if (approximate != null) {
+            return (int) approximate.existingPages.estimate();
+        }
+        return existingPages.cardinality();
     }
 
     public int getNonExistingPagesCount() {
-        return nonExistingPages.size();
+        if (approximate != null) {
+            return (int) approximate.nonExistingPages.estimate();
+        }
+        return nonExistingPages.cardinality();
+    }
+
+    public double getDistinctCountError() {
+        return approximate == null ? 0.0 : approximate.distinctError();
+    }
+
+    public long getVisitsPerUserErrorBound() {
+        return approximate == null ? 0 : approximate.frequencyErrorBound();
     }
 
     public boolean pageExists(String path) {
-        return existingPages.contains(path);
+        int id = pages.find(path);
+        return id != ByteDictionary.MISSING && existingPages.get(id);
     }
 
     public boolean pageIsNonExisting(String path) {
-        return nonExistingPages.contains(path);
+        int id = pages.find(path);
+        return id != ByteDictionary.MISSING && nonExistingPages.get(id);
     }
 
     public void printResponseCodeStatistics() {
-        System.out.println("Существующие страницы (200): " + getExistingPagesCount());
-        System.out.println("Несуществующие страницы (404): " + getNonExistingPagesCount());
-        System.out.println("Всего уникальных страниц в логах: " + (existingPages.size() + nonExistingPages.size()));
+        System.out.println("Существующие страницы (200): " + getExistingPagesCount() + distinctErrorSuffix());
+        System.out.println("Несуществующие страницы (404): " + getNonExistingPagesCount() + distinctErrorSuffix());
+        System.out.println("Всего уникальных страниц в логах: " + (getExistingPagesCount() + getNonExistingPagesCount()) + distinctErrorSuffix());
     }
 
     public void printStatistics() {
         System.out.printf("Всего записей: %,d%n", entryCount);
-        System.out.printf("Период: %s - %s%n", minTime != null ? minTime : "N/A", maxTime != null ? maxTime : "N/A");
+        LocalDateTime start = getMinTime();
+        LocalDateTime end = getMaxTime();
+        System.out.printf("Период: %s - %s%n", start != null ? start : "N/A", end != null ? end : "N/A");
         long unsignedTotal = totalTraffic & 0xFFFFFFFFL;
 
         if (unsignedTotal != totalTraffic) {
@@ -340,13 +821,16 @@ public class Statistics {
             System.out.println("Общий трафик: " + totalTraffic + " байт");
         }
 
-        if (minTime != null && maxTime != null) {
-            long hours = ChronoUnit.HOURS.between(minTime, maxTime);
+        if (hasTimeRange()) {
+            long hours = (maxTime - minTime) / 3600;
             System.out.printf("Продолжительность: %d часов%n", hours);
         }
 
         System.out.println("Посещения реальными пользователями (не боты): " + realUserVisits);
-        System.out.println("Уникальных реальных пользователей: " + uniqueRealUserIps.size());
+        if (botDetector != null) {
+            System.out.printf("Подозрительные IP по поведению: %,d, их запросов отнесено к ботам: %,d%n", getSuspiciousIpCount(), suspiciousRequests);
+        }
+        System.out.println("Уникальных реальных пользователей: " + getUniqueRealUsersCount() + distinctErrorSuffix());
         System.out.println("Запросы с ошибками (4xx, 5xx): " + errorRequests);
         System.out.println("Среднее количество посещений в час (реальные пользователи): " + String.format("%.2f", getAverageVisitsPerHour()));
         System.out.println("Среднее количество ошибок в час: " + String.format("%.2f", getAverageErrorsPerHour()));
@@ -359,20 +843,12 @@ public class Statistics {
             System.out.printf(" (достигнута %s)", peakTime);
         }
         System.out.println();
+        printWindowStatistics();
 
-        Set<String> domains = getRefererDomains();
-        System.out.printf("Сайтов-источников трафика (Referer): %,d%n", domains.size());
-        if (!domains.isEmpty()) {
-            System.out.println("Список сайтов (первые 5):");
-            int count = 0;
-            for (String domain : domains) {
-                System.out.printf("  %d. %s%n", ++count, domain);
-                if (count >= 5) {
-                    System.out.println("  ... и еще " + (domains.size() - 5));
-                    break;
-                }
-            }
-        }
+        System.out.printf("Сайтов-источников трафика (Referer): %,d%s%n", getRefererDomainsCount(), distinctErrorSuffix());
+        printTop("Список сайтов (первые " + PRINTED_TOP_SIZE + " по числу переходов):", getTopRefererDomains(), refererDomains.getSize());
+        printTop("Самые посещаемые страницы (200):", getTopPages(), existingPages.cardinality());
+        printTop("Самые частые несуществующие страницы (404):", getTopNonExistingPages(), nonExistingPages.cardinality());
 
         int maxUserVisits = getMaxVisitsPerUser();
         String mostActiveIP = getMostActiveUserIP();
@@ -380,6 +856,156 @@ public class Statistics {
         if (mostActiveIP != null) {
             System.out.printf(" (IP: %s)", mostActiveIP);
         }
+        if (approximate != null) {
+            System.out.printf(" (оценка, завышение не более %,d с вероятностью %.0f%%)",
+                    getVisitsPerUserErrorBound(), approximate.frequencyConfidence() * 100);
+        }
         System.out.println();
+
+        printLatency("Время ответа", getRequestTime(), getRequestTimeByPath(), getRequestTimeByStatus());
+        printLatency("Время ответа upstream", getUpstreamTime(), getUpstreamTimeByPath(), getUpstreamTimeByStatus());
+    }
+
+    private static void printLatency(String title, LatencySummary total, List<LatencySummary> endpoints, List<LatencySummary> statuses) {
+        if (total == null) {
+            return;
+        }
+
+        System.out.printf("%s: p50 %.1f мс, p95 %.1f мс, p99 %.1f мс, p99.9 %.1f мс, макс %.1f мс (%,d запросов)%n", title,
+                total.getP50Micros() / 1000.0, total.getP95Micros() / 1000.0, total.getP99Micros() / 1000.0,
+                total.getP999Micros() / 1000.0, total.getMaxMicros() / 1000.0, total.getCount());
+        System.out.println("Самые медленные страницы (по p99):");
+        int shown = Math.min(PRINTED_TOP_SIZE, endpoints.size());
+        for (int i = 0; i < shown; i++) {
+            System.out.printf("  %d. %s%n", i + 1, endpoints.get(i));
+        }
+        System.out.println("По кодам ответа:");
+        for (LatencySummary status : statuses) {
+            System.out.printf("  %s%n", status);
+        }
+    }
+
+    private static void printTop(String title, List<Map.Entry<String, Integer>> entries, int total) {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        System.out.println(title);
+        int shown = Math.min(PRINTED_TOP_SIZE, entries.size());
+        for (int i = 0; i < shown; i++) {
+            System.out.printf("  %d. %s - %,d%n", i + 1, entries.get(i).getKey(), entries.get(i).getValue());
+        }
+        if (total > shown) {
+            System.out.println("  ... и еще " + (total - shown));
+        }
+    }
+
+    private void printWindowStatistics() {
+        for (TimeWindow window : TimeWindow.values()) {
+            WindowSnapshot snapshot = getWindowSnapshot(window);
+            if (snapshot.isEmpty()) {
+                continue;
+            }
+            System.out.printf("Последние %s до %s: %.2f запросов/с, %.2f ошибок/с, %.2f байт/с, p50 %d, p95 %d, p99 %d, пик %d запросов/с (%s)%n",
+                    window.getLabel(), snapshot.getEnd(), snapshot.getRequestsPerSecond(), snapshot.getErrorsPerSecond(),
+                    snapshot.getBytesPerSecond(), snapshot.getRequestsPerSecondPercentile(50),
+                    snapshot.getRequestsPerSecondPercentile(95), snapshot.getRequestsPerSecondPercentile(99),
+                    snapshot.getPeakRequestsPerSecond(), snapshot.getPeakTime());
+        }
+    }
+
+    private String distinctErrorSuffix() {
+        return approximate == null ? "" : String.format(" (±%.2f%%)", getDistinctCountError() * 100);
+    }
+
+    private final class VisitsPerUserView extends AbstractMap<String, Integer> {
+        @Override
+        public int size() {
+            return getUniqueRealUsersCount();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Integer get(Object key) {
+            if (!(key instanceof String)) {
+                return null;
+            }
+
+            String ip = (String) key;
+            IpAddress address = new IpAddress();
+            int count;
+            if (!address.parse(ip)) {
+                int id = otherIps.find(ip);
+                count = id == ByteDictionary.MISSING ? 0 : otherIpCounts[id];
+            } else if (address.kind == IpAddress.V4) {
+                count = ipv4Visits.get(address.low);
+            } else {
+                count = ipv6Visits.get(address.high, address.low);
+            }
+            return count == 0 ? null : count;
+        }
+
+        @Override
+        public Set<Entry<String, Integer>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    return getUniqueRealUsersCount();
+                }
+
+                @Override
+                public Iterator<Entry<String, Integer>> iterator() {
+                    return new Iterator<>() {
+                        private int source;
+                        private int slot = advance(0);
+
+                        @Override
+                        public boolean hasNext() {
+                            return slot >= 0;
+                        }
+
+                        @Override
+                        public Entry<String, Integer> next() {
+                            if (slot < 0) {
+                                throw new NoSuchElementException();
+                            }
+
+                            Entry<String, Integer> entry;
+                            if (source == 0) {
+                                entry = new SimpleImmutableEntry<>(IpAddress.formatV4(ipv4Visits.keyAt(slot)), ipv4Visits.valueAt(slot));
+                            } else if (source == 1) {
+                                entry = new SimpleImmutableEntry<>(IpAddress.formatV6(ipv6Visits.highAt(slot), ipv6Visits.lowAt(slot)), ipv6Visits.valueAt(slot));
+                            } else {
+                                entry = new SimpleImmutableEntry<>(otherIps.get(slot), otherIpCounts[slot]);
+                            }
+                            slot = advance(slot + 1);
+                            return entry;
+                        }
+
+                        private int advance(int from) {
+                            while (true) {
+                                int next;
+                                if (source == 0) {
+                                    next = ipv4Visits.nextSlot(from);
+                                } else if (source == 1) {
+                                    next = ipv6Visits.nextSlot(from);
+                                } else {
+                                    return from < otherIps.getSize() ? from : -1;
+                                }
+                                if (next >= 0) {
+                                    return next;
+                                }
+                                source++;
+                                from = 0;
+                            }
+                        }
+                    };
+                }
+            };
+        }
     }
-}
\ No newline at end of file
+}
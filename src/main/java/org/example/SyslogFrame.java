@@ -0,0 +1,96 @@
+package org.example;
+
+final class SyslogFrame {
+    private static final int RFC5424_HEADER_FIELDS = 5;
+    private static final int RFC3164_TIMESTAMP_LENGTH = 15;
+
+    private SyslogFrame() {
+    }
+
+    static int messageStart(byte[] data, int start, int end) {
+        if (start >= end || data[start] != '<') {
+            return start;
+        }
+        int i = start + 1;
+        while (i < end && i - start <= 3 && isDigit(data[i])) {
+            i++;
+        }
+        if (i == start + 1 || i >= end || data[i] != '>') {
+            return start;
+        }
+        i++;
+
+        int version = i;
+        while (i < end && isDigit(data[i])) {
+            i++;
+        }
+        if (i > version && i < end && data[i] == ' ') {
+            return rfc5424Message(data, i + 1, end);
+        }
+        return rfc3164Message(data, version, end);
+    }
+
+    private static int rfc5424Message(byte[] data, int i, int end) {
+        for (int field = 0; field < RFC5424_HEADER_FIELDS; field++) {
+            i = skipToken(data, i, end);
+        }
+
+        if (i < end && data[i] == '[') {
+            boolean quoted = false;
+            while (i < end) {
+                byte b = data[i++];
+                if (quoted) {
+                    if (b == '\\') {
+                        i++;
+                    } else if (b == '"') {
+                        quoted = false;
+                    }
+                } else if (b == '"') {
+                    quoted = true;
+                } else if (b == ']' && (i >= end || data[i] != '[')) {
+                    break;
+                }
+            }
+        } else if (i < end) {
+            i++;
+        }
+
+        if (i < end && data[i] == ' ') {
+            i++;
+        }
+        if (end - i >= 3 && data[i] == (byte) 0xEF && data[i + 1] == (byte) 0xBB && data[i + 2] == (byte) 0xBF) {
+            i += 3;
+        }
+        return Math.min(i, end);
+    }
+
+    private static int rfc3164Message(byte[] data, int i, int end) {
+        if (end - i > RFC3164_TIMESTAMP_LENGTH && data[i + 3] == ' ' && data[i + 6] == ' '
+                && data[i + 9] == ':' && data[i + 12] == ':' && data[i + 15] == ' ') {
+            i += RFC3164_TIMESTAMP_LENGTH + 1;
+            int next = skipToken(data, i, end);
+            if (isTag(data, i, next)) {
+                return next;
+            }
+            i = next;
+        }
+        int next = skipToken(data, i, end);
+        return isTag(data, i, next) ? next : i;
+    }
+
+    private static boolean isTag(byte[] data, int start, int next) {
+        int end = next > start && data[next - 1] == ' ' ? next - 1 : next;
+        return end > start && data[end - 1] == ':';
+    }
+
+    private static int skipToken(byte[] data, int i, int end) {
+        while (i < end && data[i] != ' ') {
+            i++;
+        }
+        return i < end ? i + 1 : end;
+    }
+
+    static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+}
@@ -0,0 +1,468 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public class SyslogListener implements Closeable {
+    private static final int DATAGRAM_SIZE = 65536;
+    private static final int CONNECTION_BUFFER_SIZE = 1 << 16;
+    private static final int RECEIVE_BUFFER_SIZE = 4 << 20;
+    private static final int MAX_DATAGRAMS_PER_SELECT = 1024;
+    private static final long FLUSH_MILLIS = 100;
+    private static final Batch END = new Batch(0);
+
+    private final LogFormat format;
+    private final SyslogSettings settings;
+    private final ConcurrentStatistics statistics;
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final DatagramChannel datagrams;
+    private final ByteBuffer datagram = ByteBuffer.allocate(DATAGRAM_SIZE);
+    private final BlockingQueue<Batch> free;
+    private final BlockingQueue<Batch> filled;
+    private final ArrayDeque<Connection> paused = new ArrayDeque<>();
+    private final PipelineMetrics metrics = PipelineMetrics.global();
+    private final LongAdder receivedMessages = new LongAdder();
+    private final LongAdder droppedMessages = new LongAdder();
+    private final LongAdder oversizedMessages = new LongAdder();
+    private final LongAdder backpressurePauses = new LongAdder();
+    private final LongAdder acceptedConnections = new LongAdder();
+
+    private volatile boolean running = true;
+    private volatile boolean started;
+    private volatile boolean waitingForBatch;
+    private Batch current;
+
+    public SyslogListener(InetSocketAddress address, Supplier<Statistics> factory) throws IOException {
+        this(address, LogFormat.COMBINED, factory, SyslogSettings.defaults());
+    }
+
+    public SyslogListener(InetSocketAddress address, LogFormat format, Supplier<Statistics> factory, SyslogSettings settings) throws IOException {
+        this.format = format;
+        this.settings = settings;
+        this.statistics = new ConcurrentStatistics(factory, settings.getWorkers());
+        this.free = new ArrayBlockingQueue<>(settings.getRingSize());
+        this.filled = new ArrayBlockingQueue<>(settings.getRingSize() + settings.getWorkers());
+        for (int i = 0; i < settings.getRingSize(); i++) {
+            free.add(new Batch(settings.getBatchSize()));
+        }
+
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        this.datagrams = DatagramChannel.open();
+        try {
+            server.bind(address);
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+            datagrams.setOption(StandardSocketOptions.SO_RCVBUF, RECEIVE_BUFFER_SIZE);
+            datagrams.bind(new InetSocketAddress(address.getAddress(), getPort()));
+            datagrams.configureBlocking(false);
+            datagrams.register(selector, SelectionKey.OP_READ);
+        } catch (IOException e) {
+            closeChannels();
+            throw e;
+        }
+    }
+
+    static InetSocketAddress parseAddress(String value) {
+        int colon = value.lastIndexOf(':');
+        String host = colon < 0 ? null : value.substring(0, colon);
+        if (host != null && host.startsWith("[") && host.endsWith("]")) {
+            host = host.substring(1, host.length() - 1);
+        }
+        int port;
+        try {
+            port = Integer.parseInt(value.substring(colon + 1));
+        } catch (NumberFormatException e) {
+            port = -1;
+        }
+        if (port < 0 || port > 65535 || (host != null && host.isEmpty())) {
+            throw new IllegalArgumentException("Неверный адрес для приема syslog: " + value + " (ожидается порт или адрес:порт)");
+        }
+        return host == null ? new InetSocketAddress(port) : new InetSocketAddress(host, port);
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    public ConcurrentStatistics getStatistics() {
+        return statistics;
+    }
+
+    public long getReceivedMessages() {
+        return receivedMessages.sum();
+    }
+
+    public long getDroppedMessages() {
+        return droppedMessages.sum();
+    }
+
+    public long getOversizedMessages() {
+        return oversizedMessages.sum();
+    }
+
+    public long getBackpressurePauses() {
+        return backpressurePauses.sum();
+    }
+
+    public long getAcceptedConnections() {
+        return acceptedConnections.sum();
+    }
+
+    public int getQueuedBatches() {
+        return filled.size();
+    }
+
+    public void printCounters() {
+        System.out.printf("Syslog: принято %,d сообщений, отброшено при переполнении %,d, слишком длинных %,d, "
+                        + "приостановок чтения TCP %,d, подключений %,d, пакетов в очереди %d%n",
+                getReceivedMessages(), getDroppedMessages(), getOversizedMessages(),
+                getBackpressurePauses(), getAcceptedConnections(), getQueuedBatches());
+    }
+
+    public void run(Duration snapshotInterval, Consumer<Statistics> snapshotListener) throws IOException, InterruptedException {
+        started = true;
+        Thread[] workers = new Thread[settings.getWorkers()];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Thread(new Worker(), "syslog-worker-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+        ExecutorService snapshots = Executors.newSingleThreadExecutor();
+        long snapshotIntervalNanos = snapshotInterval.toNanos();
+
+        try {
+            long nextSnapshot = System.nanoTime() + snapshotIntervalNanos;
+            long nextFlush = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FLUSH_MILLIS);
+            while (running) {
+                long waitMillis = Math.min(FLUSH_MILLIS, TimeUnit.NANOSECONDS.toMillis(nextSnapshot - System.nanoTime()));
+                selector.select(Math.max(1, waitMillis));
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else if (key.channel() == datagrams) {
+                        receive();
+                    } else {
+                        read(key);
+                    }
+                }
+                resumePaused();
+
+                long now = System.nanoTime();
+                if (now >= nextFlush) {
+                    flush();
+                    nextFlush = now + TimeUnit.MILLISECONDS.toNanos(FLUSH_MILLIS);
+                }
+                if (now >= nextSnapshot) {
+                    snapshots.execute(() -> snapshotListener.accept(statistics.snapshot()));
+                    nextSnapshot = now + snapshotIntervalNanos;
+                }
+            }
+        } finally {
+            closeChannels();
+            flush();
+            for (int i = 0; i < workers.length; i++) {
+                filled.put(END);
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            snapshots.execute(() -> snapshotListener.accept(statistics.snapshot()));
+            snapshots.shutdown();
+            snapshots.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        if (started) {
+            selector.wakeup();
+        } else {
+            closeChannels();
+        }
+    }
+
+    private void closeChannels() throws IOException {
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        server.close();
+        datagrams.close();
+        selector.close();
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.register(selector, SelectionKey.OP_READ, new Connection(channel));
+            acceptedConnections.increment();
+        }
+    }
+
+    private void receive() throws IOException {
+        for (int i = 0; i < MAX_DATAGRAMS_PER_SELECT; i++) {
+            datagram.clear();
+            long readStart = System.nanoTime();
+            if (datagrams.receive(datagram) == null) {
+                return;
+            }
+            metrics.recordRead(datagram.position(), System.nanoTime() - readStart);
+            if (!offer(datagram.array(), 0, datagram.position())) {
+                droppedMessages.increment();
+            }
+        }
+    }
+
+    private void read(SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        long readStart = System.nanoTime();
+        int read;
+        try {
+            read = connection.channel.read(connection.buffer);
+        } catch (IOException e) {
+            read = -1;
+        }
+        if (read > 0) {
+            metrics.recordRead(read, System.nanoTime() - readStart);
+        } else if (read < 0) {
+            connection.eof = true;
+        }
+
+        if (!drain(connection)) {
+            key.interestOps(0);
+            paused.add(connection);
+            backpressurePauses.increment();
+            waitingForBatch = true;
+        } else if (connection.eof) {
+            connection.channel.close();
+        }
+    }
+
+    private void resumePaused() throws IOException {
+        while (!paused.isEmpty() && drain(paused.peek())) {
+            Connection connection = paused.poll();
+            if (connection.eof) {
+                connection.channel.close();
+            } else {
+                connection.channel.keyFor(selector).interestOps(SelectionKey.OP_READ);
+            }
+        }
+        waitingForBatch = !paused.isEmpty();
+    }
+
+    private boolean drain(Connection connection) {
+        ByteBuffer buffer = connection.buffer;
+        byte[] data = buffer.array();
+        buffer.flip();
+        int position = buffer.position();
+        int limit = buffer.limit();
+        boolean delivered = true;
+
+        while (position < limit) {
+            if (connection.skipBytes > 0) {
+                int skipped = (int) Math.min(connection.skipBytes, limit - position);
+                connection.skipBytes -= skipped;
+                position += skipped;
+                continue;
+            }
+            if (connection.skipLine) {
+                int newline = ByteLogParser.indexOf(buffer, '\n', position, limit);
+                connection.skipLine = newline < 0;
+                position = newline < 0 ? limit : newline + 1;
+                continue;
+            }
+
+            int digits = position;
+            long length = 0;
+            while (digits < limit && digits - position < 10 && SyslogFrame.isDigit(data[digits])) {
+                length = length * 10 + data[digits++] - '0';
+            }
+            if (digits > position && digits < limit && data[digits] == ' ') {
+                int frameStart = digits + 1;
+                if (frameStart - position + length > data.length) {
+                    oversizedMessages.increment();
+                    int available = limit - frameStart;
+                    connection.skipBytes = Math.max(0, length - available);
+                    position = (int) Math.min(limit, frameStart + length);
+                    continue;
+                }
+                if (frameStart + length > limit) {
+                    if (connection.eof) {
+                        position = limit;
+                    }
+                    break;
+                }
+                if (!offer(data, frameStart, frameStart + (int) length)) {
+                    delivered = false;
+                    break;
+                }
+                position = frameStart + (int) length;
+                continue;
+            }
+            if (digits == limit && !connection.eof) {
+                break;
+            }
+
+            int newline = ByteLogParser.indexOf(buffer, '\n', position, limit);
+            if (newline < 0 && !connection.eof) {
+                if (position == 0 && limit == data.length) {
+                    oversizedMessages.increment();
+                    connection.skipLine = true;
+                    position = limit;
+                }
+                break;
+            }
+            int frameEnd = newline < 0 ? limit : newline;
+            if (!offer(data, position, frameEnd)) {
+                delivered = false;
+                break;
+            }
+            position = newline < 0 ? limit : newline + 1;
+        }
+
+        buffer.position(position);
+        buffer.compact();
+        return delivered;
+    }
+
+    private boolean offer(byte[] data, int start, int end) {
+        while (end > start && (data[end - 1] == '\n' || data[end - 1] == '\r')) {
+            end--;
+        }
+        start = SyslogFrame.messageStart(data, start, end);
+        if (end <= start) {
+            return true;
+        }
+        if (end - start > MappedLogReader.MAX_LINE_LENGTH) {
+            oversizedMessages.increment();
+            metrics.recordSkippedLine();
+            return true;
+        }
+
+        if (current != null && !current.append(data, start, end)) {
+            filled.add(current);
+            current = null;
+        }
+        if (current == null) {
+            current = free.poll();
+            if (current == null) {
+                return false;
+            }
+            current.append(data, start, end);
+        }
+        receivedMessages.increment();
+        return true;
+    }
+
+    private void flush() {
+        if (current != null && current.count > 0) {
+            filled.add(current);
+            current = null;
+        }
+    }
+
+    private static class Batch {
+        final byte[] data;
+        final ByteBuffer buffer;
+        final int[] starts;
+        final int[] ends;
+        int count;
+        int length;
+
+        Batch(int size) {
+            this.data = new byte[size];
+            this.buffer = ByteBuffer.wrap(data);
+            this.starts = new int[Math.max(16, size / 64)];
+            this.ends = new int[starts.length];
+        }
+
+        boolean append(byte[] source, int start, int end) {
+            int length = end - start;
+            if (this.length + length > data.length || count == starts.length) {
+                return false;
+            }
+            System.arraycopy(source, start, data, this.length, length);
+            starts[count] = this.length;
+            this.length += length;
+            ends[count++] = this.length;
+            return true;
+        }
+
+        void clear() {
+            count = 0;
+            length = 0;
+        }
+    }
+
+    private static class Connection {
+        final SocketChannel channel;
+        final ByteBuffer buffer = ByteBuffer.allocate(CONNECTION_BUFFER_SIZE);
+        long skipBytes;
+        boolean skipLine;
+        boolean eof;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    private class Worker implements Runnable {
+        private final LogRecordView record = new LogRecordView(format);
+        private long lineNumber;
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    Batch batch = filled.take();
+                    if (batch == END) {
+                        return;
+                    }
+                    try {
+                        statistics.addBatch(handler -> {
+                            for (int i = 0; i < batch.count; i++) {
+                                metrics.process(batch.buffer, batch.starts[i], batch.ends[i], ++lineNumber, record, handler);
+                            }
+                        });
+                    } finally {
+                        batch.clear();
+                        free.add(batch);
+                        if (waitingForBatch) {
+                            selector.wakeup();
+                        }
+                    }
+                }
+            } catch (InterruptedException ignored) {
+            }
+        }
+    }
+}
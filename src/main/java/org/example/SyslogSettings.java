@@ -0,0 +1,38 @@
+package org.example;
+
+public final class SyslogSettings {
+    private final int workers;
+    private final int ringSize;
+    private final int batchSize;
+
+    public SyslogSettings(int workers, int ringSize, int batchSize) {
+        if (workers < 1 || workers > ConcurrentStatistics.MAX_STRIPES) {
+            throw new IllegalArgumentException("Число потоков разбора должно быть от 1 до " + ConcurrentStatistics.MAX_STRIPES + ": " + workers);
+        }
+        if (ringSize < 2) {
+            throw new IllegalArgumentException("В кольцевом буфере должно быть не меньше двух пакетов: " + ringSize);
+        }
+        if (batchSize < MappedLogReader.MAX_LINE_LENGTH) {
+            throw new IllegalArgumentException("Размер пакета должен быть не меньше " + MappedLogReader.MAX_LINE_LENGTH + " байт: " + batchSize);
+        }
+        this.workers = workers;
+        this.ringSize = ringSize;
+        this.batchSize = batchSize;
+    }
+
+    public static SyslogSettings defaults() {
+        return new SyslogSettings(Math.min(ConcurrentStatistics.MAX_STRIPES, Runtime.getRuntime().availableProcessors()), 64, 1 << 16);
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public int getRingSize() {
+        return ringSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+}
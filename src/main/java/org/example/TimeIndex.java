@@ -0,0 +1,330 @@
+package org.example;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+public final class TimeIndex {
+    static final String SUFFIX = ".alpi";
+    static final String TEMP_SUFFIX = ".tmp";
+
+    private static final int MAGIC = 0x414C5049;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 40;
+    private static final int BYTES_PER_BLOCK = 24;
+    private static final long BLOCK_BYTES = 4L << 20;
+    private static final long BLOCK_SECONDS = 60;
+    private static final int HEAD_SAMPLE_SIZE = 4096;
+    private static final long WINDOW_SIZE = 1L << 30;
+    private static final long SEARCH_SLACK_SECONDS = 300;
+    private static final int SEARCH_MAX_PROBES = 64;
+
+    private final long formatHash;
+    private long headHash;
+    private int headLength;
+    private long indexedSize;
+    private int blocks;
+    private long previousMax = Long.MIN_VALUE;
+    private long[] offsets = new long[64];
+    private long[] minSeconds = new long[64];
+    private long[] maxSeconds = new long[64];
+
+    private TimeIndex(long formatHash) {
+        this.formatHash = formatHash;
+    }
+
+    public static TimeIndex update(File source, LogFormat format) throws IOException {
+        Path path = indexPath(source.toPath());
+        try (FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            TimeIndex index = Files.isRegularFile(path) ? load(path, channel, format) : null;
+            if (index == null) {
+                index = new TimeIndex(Hashing.hash(format.getSpec()));
+            }
+            if (index.extend(channel, format)) {
+                index.save(path);
+            }
+            return index;
+        }
+    }
+
+    static TimeIndex open(File source, FileChannel channel, LogFormat format) throws IOException {
+        Path path = indexPath(source.toPath());
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+
+        TimeIndex index = load(path, channel, format);
+        if (index == null) {
+            index = new TimeIndex(Hashing.hash(format.getSpec()));
+        }
+        if (index.extend(channel, format)) {
+            try {
+                index.save(path);
+            } catch (IOException e) {
+                System.err.println("Не удалось обновить индекс " + path + ": " + e.getMessage());
+            }
+        }
+        return index;
+    }
+
+    static Path indexPath(Path source) {
+        return source.resolveSibling(source.getFileName() + SUFFIX);
+    }
+
+    static boolean isIndexFile(Path path) {
+        String name = path.getFileName().toString();
+        return name.endsWith(SUFFIX) || (name.contains(SUFFIX) && name.endsWith(TEMP_SUFFIX));
+    }
+
+    public int getBlockCount() {
+        return blocks;
+    }
+
+    public long getIndexedSize() {
+        return indexedSize;
+    }
+
+    long[] span(long from, long to, long size) {
+        long[] prefixMax = new long[blocks];
+        long[] suffixMin = new long[blocks];
+        for (int i = 0; i < blocks; i++) {
+            prefixMax[i] = i == 0 ? maxSeconds[i] : Math.max(prefixMax[i - 1], maxSeconds[i]);
+        }
+        for (int i = blocks - 1; i >= 0; i--) {
+            suffixMin[i] = i == blocks - 1 ? minSeconds[i] : Math.min(suffixMin[i + 1], minSeconds[i]);
+        }
+
+        int first = 0;
+        int last = blocks;
+        while (first < last) {
+            int middle = (first + last) >>> 1;
+            if (prefixMax[middle] >= from) {
+                last = middle;
+            } else {
+                first = middle + 1;
+            }
+        }
+
+        int lo = first;
+        int hi = blocks;
+        while (lo < hi) {
+            int middle = (lo + hi) >>> 1;
+            if (suffixMin[middle] < to) {
+                lo = middle + 1;
+            } else {
+                hi = middle;
+            }
+        }
+
+        if (lo == first) {
+            return new long[]{indexedSize, size};
+        }
+        long start = offsets[first];
+        long end = lo < blocks ? offsets[lo] : size;
+        return new long[]{start, end};
+    }
+
+    static long[] search(FileChannel channel, LogFormat format, long from, long to) throws IOException {
+        long size = channel.size();
+        LogRecordView record = new LogRecordView(format);
+        ByteBuffer buffer = ByteBuffer.allocate(MappedLogReader.MAX_LINE_LENGTH + 2);
+        long start = from == Long.MIN_VALUE ? 0 : lowerBound(channel, size, from - SEARCH_SLACK_SECONDS, record, buffer);
+        long end = to == Long.MAX_VALUE ? size : lowerBound(channel, size, to + SEARCH_SLACK_SECONDS, record, buffer);
+        return new long[]{start, Math.max(start, end)};
+    }
+
+    private static long lowerBound(FileChannel channel, long size, long second, LogRecordView record, ByteBuffer buffer) throws IOException {
+        long lo = 0;
+        long hi = size;
+        while (lo < hi) {
+            long middle = (lo + hi) >>> 1;
+            if (secondAt(channel, lineStart(channel, middle, size), size, record, buffer) < second) {
+                lo = middle + 1;
+            } else {
+                hi = middle;
+            }
+        }
+        return lineStart(channel, lo, size);
+    }
+
+    private static long lineStart(FileChannel channel, long position, long size) throws IOException {
+        return position == 0 ? 0 : ParallelLogReader.nextLineStart(channel, position - 1, size);
+    }
+
+    private static long secondAt(FileChannel channel, long position, long size, LogRecordView record, ByteBuffer buffer) throws IOException {
+        for (int probe = 0; probe < SEARCH_MAX_PROBES && position < size; probe++) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            int end = ByteLogParser.indexOf(buffer, '\n', 0, read);
+            if (end < 0 && position + read < size) {
+                throw new LineTooLongException("Строка по смещению " + position + " превышает " + MappedLogReader.MAX_LINE_LENGTH + " символа");
+            }
+            int lineEnd = end < 0 ? read : end;
+            if (record.parse(buffer, 0, lineEnd) && record.epochSecond != TimestampDecoder.INVALID) {
+                return record.epochSecond;
+            }
+            position += lineEnd + 1;
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private boolean extend(FileChannel channel, LogFormat format) throws IOException {
+        long size = channel.size();
+        if (size <= indexedSize) {
+            return false;
+        }
+
+        LogRecordView record = new LogRecordView(format);
+        long position = indexedSize;
+        while (position < size) {
+            long length = Math.min(WINDOW_SIZE, size - position);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            int limit = (int) length;
+            int lineStart = 0;
+            for (int i = 0; i < limit; i++) {
+                if (buffer.get(i) == '\n') {
+                    long second = record.parse(buffer, lineStart, i) ? record.epochSecond : TimestampDecoder.INVALID;
+                    add(position + lineStart, second);
+                    lineStart = i + 1;
+                }
+            }
+
+            boolean lastWindow = position + length >= size;
+            if (lineStart == 0 && !lastWindow) {
+                throw new LineTooLongException("Строка по смещению " + position + " превышает " + MappedLogReader.MAX_LINE_LENGTH + " символа");
+            }
+            position += lineStart;
+            if (lastWindow) {
+                break;
+            }
+        }
+
+        if (position == indexedSize) {
+            return false;
+        }
+        indexedSize = position;
+        if (headLength < HEAD_SAMPLE_SIZE) {
+            headLength = (int) Math.min(HEAD_SAMPLE_SIZE, indexedSize);
+            headHash = headHash(channel, headLength);
+        }
+        return true;
+    }
+
+    private void add(long offset, long second) {
+        int last = blocks - 1;
+        boolean startBlock = blocks == 0 || offset - offsets[last] >= BLOCK_BYTES;
+        if (!startBlock && second != TimestampDecoder.INVALID) {
+            long reference = previousMax != Long.MIN_VALUE ? previousMax : minSeconds[last];
+            startBlock = reference != Long.MAX_VALUE && second - reference >= BLOCK_SECONDS;
+        }
+        if (startBlock) {
+            if (blocks == offsets.length) {
+                offsets = Arrays.copyOf(offsets, blocks << 1);
+                minSeconds = Arrays.copyOf(minSeconds, blocks << 1);
+                maxSeconds = Arrays.copyOf(maxSeconds, blocks << 1);
+            }
+            if (blocks > 0) {
+                previousMax = Math.max(previousMax, maxSeconds[last]);
+            }
+            last = blocks++;
+            offsets[last] = offset;
+            minSeconds[last] = Long.MAX_VALUE;
+            maxSeconds[last] = Long.MIN_VALUE;
+        }
+        if (second != TimestampDecoder.INVALID) {
+            minSeconds[last] = Math.min(minSeconds[last], second);
+            maxSeconds[last] = Math.max(maxSeconds[last], second);
+        }
+    }
+
+    private static TimeIndex load(Path path, FileChannel source, LogFormat format) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) {
+                return null;
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(fileSize, Integer.MAX_VALUE));
+            while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) > 0) {
+            }
+            buffer.flip();
+
+            TimeIndex index = new TimeIndex(Hashing.hash(format.getSpec()));
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getLong() != index.formatHash) {
+                return null;
+            }
+            index.headHash = buffer.getLong();
+            index.headLength = buffer.getInt();
+            int blocks = buffer.getInt();
+            index.indexedSize = buffer.getLong();
+            if (blocks < 0 || (long) blocks * BYTES_PER_BLOCK != fileSize - HEADER_SIZE || index.indexedSize > source.size()
+                    || index.headLength > index.indexedSize || !index.matchesHead(source)) {
+                return null;
+            }
+
+            index.blocks = blocks;
+            index.offsets = new long[Math.max(64, blocks)];
+            index.minSeconds = new long[index.offsets.length];
+            index.maxSeconds = new long[index.offsets.length];
+            for (int i = 0; i < blocks; i++) {
+                index.offsets[i] = buffer.getLong();
+                index.minSeconds[i] = buffer.getLong();
+                index.maxSeconds[i] = buffer.getLong();
+                if (i < blocks - 1) {
+                    index.previousMax = Math.max(index.previousMax, index.maxSeconds[i]);
+                }
+            }
+            return index;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private boolean matchesHead(FileChannel source) throws IOException {
+        if (indexedSize > 0) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            if (source.read(last, indexedSize - 1) != 1 || last.get(0) != '\n') {
+                return false;
+            }
+        }
+        return headHash(source, headLength) == headHash;
+    }
+
+    private static long headHash(FileChannel source, int length) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(length);
+        while (head.hasRemaining() && source.read(head, head.position()) > 0) {
+        }
+        return Hashing.hash(0, head.array(), head.position());
+    }
+
+    private void save(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + blocks * BYTES_PER_BLOCK);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(formatHash).putLong(headHash).putInt(headLength).putInt(blocks).putLong(indexedSize);
+        for (int i = 0; i < blocks; i++) {
+            buffer.putLong(offsets[i]).putLong(minSeconds[i]).putLong(maxSeconds[i]);
+        }
+        buffer.flip();
+
+        Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), TEMP_SUFFIX);
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.example;
+
+import java.util.Arrays;
+
+final class TimeSeries {
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final int capacity;
+    private final long[] stamps;
+    private final int[] requests;
+    private final int[] errors;
+    private final long[] bytes;
+    private long earliest = Long.MAX_VALUE;
+    private long latest = Long.MIN_VALUE;
+
+    TimeSeries(int capacity) {
+        this.capacity = capacity;
+        this.stamps = new long[capacity];
+        this.requests = new int[capacity];
+        this.errors = new int[capacity];
+        this.bytes = new long[capacity];
+        Arrays.fill(stamps, EMPTY);
+    }
+
+    void add(long second, boolean error, long responseBytes) {
+        add(second, 1, error ? 1 : 0, responseBytes);
+    }
+
+    void merge(TimeSeries other) {
+        for (int i = 0; i < other.capacity; i++) {
+            if (other.stamps[i] != EMPTY) {
+                add(other.stamps[i], other.requests[i], other.errors[i], other.bytes[i]);
+            }
+        }
+        earliest = Math.min(earliest, other.earliest);
+    }
+
+    WindowSnapshot snapshot(TimeWindow window) {
+        if (latest == Long.MIN_VALUE) {
+            return new WindowSnapshot(window, Long.MIN_VALUE, 0, 0, 0, 0, new int[0]);
+        }
+
+        int span = (int) Math.min(Math.min(window.getSeconds(), capacity), latest - earliest + 1);
+        int[] perSecond = new int[span];
+        long totalRequests = 0;
+        long totalErrors = 0;
+        long totalBytes = 0;
+        long peakSecond = latest;
+        int peak = -1;
+
+        for (int offset = span - 1; offset >= 0; offset--) {
+            long second = latest - offset;
+            int index = index(second);
+            if (stamps[index] != second) {
+                continue;
+            }
+            perSecond[span - 1 - offset] = requests[index];
+            totalRequests += requests[index];
+            totalErrors += errors[index];
+            totalBytes += bytes[index];
+            if (requests[index] > peak) {
+                peak = requests[index];
+                peakSecond = second;
+            }
+        }
+
+        Arrays.sort(perSecond);
+        return new WindowSnapshot(window, latest, totalRequests, totalErrors, totalBytes, peakSecond, perSecond);
+    }
+
+    private void add(long second, int requestCount, int errorCount, long responseBytes) {
+        if (latest != Long.MIN_VALUE && second <= latest - capacity) {
+            return;
+        }
+        latest = Math.max(latest, second);
+        earliest = Math.min(earliest, second);
+
+        int index = index(second);
+        if (stamps[index] != second) {
+            stamps[index] = second;
+            requests[index] = 0;
+            errors[index] = 0;
+            bytes[index] = 0;
+        }
+        requests[index] += requestCount;
+        errors[index] += errorCount;
+        bytes[index] += responseBytes;
+    }
+
+    private int index(long second) {
+        return (int) Math.floorMod(second, (long) capacity);
+    }
+}
@@ -0,0 +1,31 @@
+package org.example;
+
+public enum TimeWindow {
+    ONE_MINUTE(60, "1 мин"),
+    FIVE_MINUTES(300, "5 мин"),
+    ONE_HOUR(3600, "1 час");
+
+    private final int seconds;
+    private final String label;
+
+    TimeWindow(int seconds, String label) {
+        this.seconds = seconds;
+        this.label = label;
+    }
+
+    public int getSeconds() {
+        return seconds;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    static int maxSeconds() {
+        int max = 0;
+        for (TimeWindow window : values()) {
+            max = Math.max(max, window.seconds);
+        }
+        return max;
+    }
+}
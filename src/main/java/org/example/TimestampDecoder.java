@@ -0,0 +1,212 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.time.Month;
+import java.time.Year;
+
+public final class TimestampDecoder {
+    public static final long INVALID = Long.MIN_VALUE;
+
+    private static final int LAYOUT_LENGTH = 26;
+    private static final int ISO_MAX_LENGTH = 35;
+    private static final int PREFIX_LENGTH = 14;
+    private static final String MONTHS = "JanFebMarAprMayJunJulAugSepOctNovDec";
+
+    private final byte[] field = new byte[ISO_MAX_LENGTH];
+    private final byte[] cachedPrefix = new byte[PREFIX_LENGTH];
+    private final byte[] cachedZone = new byte[5];
+    private int cachedZoneLength = -1;
+    private long cachedHourBase;
+    private int cachedOffsetSeconds;
+    private int offsetSeconds;
+
+    public long decode(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        if (length > LAYOUT_LENGTH) {
+            return INVALID;
+        }
+        buffer.get(start, field, 0, length);
+        return decodeField(length);
+    }
+
+    public long decode(CharSequence text, int start, int end) {
+        int length = end - start;
+        if (length > LAYOUT_LENGTH) {
+            return INVALID;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(start + i);
+            field[i] = c < 0x80 ? (byte) c : 0;
+        }
+        return decodeField(length);
+    }
+
+    public long decodeIso8601(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        if (length < 19 || length > ISO_MAX_LENGTH) {
+            return INVALID;
+        }
+        buffer.get(start, field, 0, length);
+        if (field[4] != '-' || field[7] != '-' || (field[10] != 'T' && field[10] != ' ') || field[13] != ':' || field[16] != ':') {
+            return INVALID;
+        }
+
+        int year = digits(0, 4);
+        int month = digits(5, 2);
+        int day = digits(8, 2);
+        int hour = digits(11, 2);
+        int minute = digits(14, 2);
+        int second = digits(17, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31 || hour < 0 || hour > 23
+                || minute < 0 || minute > 59 || second < 0 || second > 60) {
+            return INVALID;
+        }
+
+        int i = 19;
+        if (i < length && field[i] == '.') {
+            i++;
+            while (i < length && field[i] >= '0' && field[i] <= '9') {
+                i++;
+            }
+        }
+
+        int offset = 0;
+        if (i < length) {
+            int zoneLength = length - i;
+            if (field[i] == 'Z' && zoneLength == 1) {
+                offset = 0;
+            } else if ((field[i] == '+' || field[i] == '-') && (zoneLength == 5 || (zoneLength == 6 && field[i + 3] == ':'))) {
+                int hours = digits(i + 1, 2);
+                int minutes = digits(i + zoneLength - 2, 2);
+                if (hours < 0 || hours > 18 || minutes < 0 || minutes > 59) {
+                    return INVALID;
+                }
+                offset = hours * 3600 + minutes * 60;
+                offset = field[i] == '-' ? -offset : offset;
+            } else {
+                return INVALID;
+            }
+        }
+
+        day = Math.min(day, Month.of(month).length(Year.isLeap(year)));
+        offsetSeconds = offset;
+        return daysFromCivil(year, month, day) * 86400L + hour * 3600L + minute * 60L + Math.min(second, 59) - offset;
+    }
+
+    public int getOffsetSeconds() {
+        return offsetSeconds;
+    }
+
+    private long decodeField(int length) {
+        if (length < 20 || (length > 20 && field[20] != ' ')) {
+            return INVALID;
+        }
+        if (field[14] != ':' || field[17] != ':') {
+            return INVALID;
+        }
+        int minute = digits(15, 2);
+        int second = digits(18, 2);
+        if (minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return INVALID;
+        }
+
+        int zoneLength = length > 21 ? length - 21 : 0;
+        if (!sameAsCached(zoneLength) && !decodePrefix(zoneLength)) {
+            return INVALID;
+        }
+
+        offsetSeconds = cachedOffsetSeconds;
+        return cachedHourBase + minute * 60L + second;
+    }
+
+    private boolean sameAsCached(int zoneLength) {
+        if (zoneLength != cachedZoneLength) {
+            return false;
+        }
+        for (int i = 0; i < PREFIX_LENGTH; i++) {
+            if (field[i] != cachedPrefix[i]) {
+                return false;
+            }
+        }
+        for (int i = 0; i < zoneLength; i++) {
+            if (field[21 + i] != cachedZone[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean decodePrefix(int zoneLength) {
+        if (field[2] != '/' || field[6] != '/' || field[11] != ':') {
+            return false;
+        }
+
+        int day = digits(0, 2);
+        int month = month(3);
+        int year = digits(7, 4);
+        int hour = digits(12, 2);
+        if (day < 1 || day > 31 || month < 1 || year < 0 || hour < 0 || hour > 23) {
+            return false;
+        }
+
+        int offset = 0;
+        if (zoneLength > 0) {
+            offset = zoneOffset(zoneLength);
+            if (offset == Integer.MIN_VALUE) {
+                return false;
+            }
+        }
+
+        day = Math.min(day, Month.of(month).length(Year.isLeap(year)));
+        cachedHourBase = daysFromCivil(year, month, day) * 86400L + hour * 3600L - offset;
+        cachedOffsetSeconds = offset;
+        System.arraycopy(field, 0, cachedPrefix, 0, PREFIX_LENGTH);
+        System.arraycopy(field, 21, cachedZone, 0, zoneLength);
+        cachedZoneLength = zoneLength;
+        return true;
+    }
+
+    private int zoneOffset(int zoneLength) {
+        if (zoneLength != 5 || (field[21] != '+' && field[21] != '-')) {
+            return Integer.MIN_VALUE;
+        }
+        int hours = digits(22, 2);
+        int minutes = digits(24, 2);
+        if (hours < 0 || hours > 18 || minutes < 0 || minutes > 59) {
+            return Integer.MIN_VALUE;
+        }
+        int offset = hours * 3600 + minutes * 60;
+        return field[21] == '-' ? -offset : offset;
+    }
+
+    private int month(int start) {
+        for (int i = 0; i < MONTHS.length(); i += 3) {
+            if (field[start] == MONTHS.charAt(i) && field[start + 1] == MONTHS.charAt(i + 1)
+                    && field[start + 2] == MONTHS.charAt(i + 2)) {
+                return i / 3 + 1;
+            }
+        }
+        return -1;
+    }
+
+    private int digits(int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = field[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static long daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+}
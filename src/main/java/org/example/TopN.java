@@ -0,0 +1,178 @@
+package org.example;
+
+final class TopN {
+    interface Visitor {
+        void visit(long high, long low, int count);
+    }
+
+    private final int capacity;
+    private final ByteDictionary dictionary;
+    private final long[] highs;
+    private final long[] lows;
+    private final int[] counts;
+    private final int[] slots;
+    private final int[] index;
+    private final int mask;
+    private int size;
+
+    TopN(int capacity) {
+        this(capacity, null);
+    }
+
+    TopN(int capacity, ByteDictionary dictionary) {
+        this.capacity = capacity;
+        this.dictionary = dictionary;
+        this.highs = new long[capacity];
+        this.lows = new long[capacity];
+        this.counts = new int[capacity];
+        this.slots = new int[capacity];
+        int tableSize = LongIntMap.tableSize(capacity);
+        this.index = new int[tableSize];
+        this.mask = tableSize - 1;
+    }
+
+    void offer(long high, long low, int count) {
+        if (size == capacity && !ranksAbove(count, high, low, 0)) {
+            return;
+        }
+
+        int slot = find(high, low);
+        int position;
+        if (index[slot] != 0) {
+            position = index[slot] - 1;
+            counts[position] = count;
+        } else if (size < capacity) {
+            position = size++;
+            place(position, slot, high, low, count);
+            siftUp(position);
+            return;
+        } else {
+            remove(slots[0]);
+            position = 0;
+            place(position, find(high, low), high, low, count);
+        }
+        siftDown(position);
+    }
+
+    void forEachDescending(Visitor visitor) {
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            int position = i;
+            int j = i;
+            while (j > 0 && ranksAbove(position, order[j - 1])) {
+                order[j] = order[j - 1];
+                j--;
+            }
+            order[j] = position;
+        }
+        for (int position : order) {
+            visitor.visit(highs[position], lows[position], counts[position]);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void place(int position, int slot, long high, long low, int count) {
+        highs[position] = high;
+        lows[position] = low;
+        counts[position] = count;
+        slots[position] = slot;
+        index[slot] = position + 1;
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!ranksAbove(parent, position)) {
+                return;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int child = (position << 1) + 1;
+            if (child >= size) {
+                return;
+            }
+            if (child + 1 < size && ranksAbove(child, child + 1)) {
+                child++;
+            }
+            if (!ranksAbove(position, child)) {
+                return;
+            }
+            swap(position, child);
+            position = child;
+        }
+    }
+
+    private boolean ranksAbove(int a, int b) {
+        return ranksAbove(counts[a], highs[a], lows[a], b);
+    }
+
+    private boolean ranksAbove(int count, long high, long low, int position) {
+        if (count != counts[position]) {
+            return count > counts[position];
+        }
+        if (dictionary != null) {
+            return dictionary.compare((int) low, (int) lows[position]) < 0;
+        }
+        int byHigh = Long.compareUnsigned(high, highs[position]);
+        return byHigh != 0 ? byHigh < 0 : Long.compareUnsigned(low, lows[position]) < 0;
+    }
+
+    private void swap(int a, int b) {
+        long high = highs[a];
+        long low = lows[a];
+        int count = counts[a];
+        int slot = slots[a];
+        highs[a] = highs[b];
+        lows[a] = lows[b];
+        counts[a] = counts[b];
+        slots[a] = slots[b];
+        highs[b] = high;
+        lows[b] = low;
+        counts[b] = count;
+        slots[b] = slot;
+        index[slots[a]] = a + 1;
+        index[slots[b]] = b + 1;
+    }
+
+    private int find(long high, long low) {
+        int slot = home(high, low);
+        int entry;
+        while ((entry = index[slot]) != 0) {
+            if (highs[entry - 1] == high && lows[entry - 1] == low) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void remove(int slot) {
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        int entry;
+        while ((entry = index[next]) != 0) {
+            int home = home(highs[entry - 1], lows[entry - 1]);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                index[hole] = entry;
+                slots[entry - 1] = hole;
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        index[hole] = 0;
+    }
+
+    private int home(long high, long low) {
+        long h = (high * 0x9E3779B97F4A7C15L) ^ low;
+        h *= 0xC2B2AE3D27D4EB4FL;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
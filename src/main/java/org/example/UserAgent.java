@@ -1,65 +1,31 @@
 package org.example;
 
-import java.util.Arrays;
-
 public class UserAgent {
     private final String osType;
     private final String browser;
     private final boolean isBot;
+    private final int osOrdinal;
+    private final int browserOrdinal;
 
     public UserAgent(String userAgentString) {
-        this.osType = parseOsType(userAgentString);
-        this.browser = parseBrowser(userAgentString);
-        this.isBot = checkIfBot(userAgentString);
+        UserAgent classified = UserAgentClassifier.classify(userAgentString);
+        this.osType = classified.osType;
+        this.browser = classified.browser;
+        this.isBot = classified.isBot;
+        this.osOrdinal = classified.osOrdinal;
+        this.browserOrdinal = classified.browserOrdinal;
     }
 
-    private String parseOsType(String userAgent) {
-        if (userAgent == null) return "Other";
-
-        userAgent = userAgent.toLowerCase();
-
-        if (userAgent.contains("windows")) {
-            return "Windows";
-        } else if (userAgent.contains("mac os") || userAgent.contains("macos")) {
-            return "macOS";
-        } else if (userAgent.contains("linux")) {
-            return "Linux";
-        } else if (userAgent.contains("android")) {
-            return "Android";
-        } else if (userAgent.contains("ios") || userAgent.contains("iphone")) {
-            return "iOS";
-        } else {
-            return "Other";
-        }
+    UserAgent(int osOrdinal, int browserOrdinal, boolean isBot) {
+        this.osType = UserAgentClassifier.OS_TYPES[osOrdinal];
+        this.browser = UserAgentClassifier.BROWSERS[browserOrdinal];
+        this.isBot = isBot;
+        this.osOrdinal = osOrdinal;
+        this.browserOrdinal = browserOrdinal;
     }
 
-    private String parseBrowser(String userAgent) {
-        if (userAgent == null) return "Other";
-
-        userAgent = userAgent.toLowerCase();
-
-        if (userAgent.contains("edge")) {
-            return "Edge";
-        } else if (userAgent.contains("firefox")) {
-            return "Firefox";
-        } else if (userAgent.contains("chrome") && !userAgent.contains("chromium")) {
-            return "Chrome";
-        } else if (userAgent.contains("opera") || userAgent.contains("opr/")) {
-            return "Opera";
-        } else if (userAgent.contains("safari") && !userAgent.contains("chrome")) {
-            return "Safari";
-        } else {
-            return "Other";
-        }
-    }
-
-    private boolean checkIfBot(String userAgent) {
-        if (userAgent == null) return false;
-
-        userAgent = userAgent.toLowerCase();
-        String[] botKeywords = {"bot", "crawler", "spider", "googlebot", "yandexbot", "bingbot", "duckduckbot", "slurp"};
-
-        return Arrays.stream(botKeywords).anyMatch(userAgent::contains);
+    public static UserAgent of(String userAgentString) {
+        return UserAgentClassifier.cached(userAgentString);
     }
 
     public String getOsType() {
@@ -74,8 +40,16 @@ public class UserAgent {
         return isBot;
     }
 
+    int getOsOrdinal() {
+        return osOrdinal;
+    }
+
+    int getBrowserOrdinal() {
+        return browserOrdinal;
+    }
+
     @Override
     public String toString() {
         return String.format("OS: %s, Browser: %s, Bot: %b", osType, browser, isBot);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,200 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+final class UserAgentClassifier {
+    private static final String[] PATTERNS = {
+            "windows", "mac os", "macos", "linux", "android", "ios", "iphone",
+            "edge", "firefox", "chrome", "chromium", "opera", "opr/", "safari",
+            "bot", "crawler", "spider", "slurp"
+    };
+
+    private static final int WINDOWS = 1;
+    private static final int MAC_OS = 1 << 1 | 1 << 2;
+    private static final int LINUX = 1 << 3;
+    private static final int ANDROID = 1 << 4;
+    private static final int IOS = 1 << 5 | 1 << 6;
+    private static final int EDGE = 1 << 7;
+    private static final int FIREFOX = 1 << 8;
+    private static final int CHROME = 1 << 9;
+    private static final int CHROMIUM = 1 << 10;
+    private static final int OPERA = 1 << 11 | 1 << 12;
+    private static final int SAFARI = 1 << 13;
+    private static final int BOT = 1 << 14 | 1 << 15 | 1 << 16 | 1 << 17;
+
+    static final String[] OS_TYPES = {"Windows", "macOS", "Linux", "Android", "iOS", "Other"};
+    static final String[] BROWSERS = {"Edge", "Firefox", "Chrome", "Opera", "Safari", "Other"};
+
+    private static final int ALPHABET = 128;
+    private static final int[] TRANSITIONS;
+    private static final int[] OUTPUTS;
+    private static final UserAgent[] INSTANCES;
+
+    private static final int CACHE_SIZE = 8192;
+    private static final ThreadLocal<ClockCache<String>> CACHE = ThreadLocal.withInitial(() -> new ClockCache<>(CACHE_SIZE));
+
+    static {
+        List<int[]> trie = new ArrayList<>();
+        List<Integer> outputs = new ArrayList<>();
+        trie.add(new int[ALPHABET]);
+        outputs.add(0);
+
+        for (int p = 0; p < PATTERNS.length; p++) {
+            int state = 0;
+            for (char c : PATTERNS[p].toCharArray()) {
+                if (trie.get(state)[c] == 0) {
+                    trie.add(new int[ALPHABET]);
+                    outputs.add(0);
+                    trie.get(state)[c] = trie.size() - 1;
+                }
+                state = trie.get(state)[c];
+            }
+            outputs.set(state, outputs.get(state) | 1 << p);
+        }
+
+        int[] failure = new int[trie.size()];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET; c++) {
+            if (trie.get(0)[c] != 0) {
+                queue.add(trie.get(0)[c]);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            outputs.set(state, outputs.get(state) | outputs.get(failure[state]));
+            for (int c = 0; c < ALPHABET; c++) {
+                int next = trie.get(state)[c];
+                if (next != 0) {
+                    failure[next] = trie.get(failure[state])[c];
+                    queue.add(next);
+                } else {
+                    trie.get(state)[c] = trie.get(failure[state])[c];
+                }
+            }
+        }
+
+        TRANSITIONS = new int[trie.size() * ALPHABET];
+        OUTPUTS = new int[trie.size()];
+        for (int state = 0; state < trie.size(); state++) {
+            System.arraycopy(trie.get(state), 0, TRANSITIONS, state * ALPHABET, ALPHABET);
+            OUTPUTS[state] = outputs.get(state);
+        }
+
+        INSTANCES = new UserAgent[OS_TYPES.length * BROWSERS.length * 2];
+        for (int os = 0; os < OS_TYPES.length; os++) {
+            for (int browser = 0; browser < BROWSERS.length; browser++) {
+                for (int bot = 0; bot < 2; bot++) {
+                    INSTANCES[index(os, browser, bot == 1)] = new UserAgent(os, browser, bot == 1);
+                }
+            }
+        }
+    }
+
+    private UserAgentClassifier() {
+    }
+
+    static UserAgent cached(String userAgent) {
+        if (userAgent == null) {
+            return classify(0);
+        }
+
+        ClockCache<String> cache = CACHE.get();
+        int id = cache.get(userAgent);
+        if (id != ClockCache.MISSING) {
+            return INSTANCES[id];
+        }
+        UserAgent result = classify(userAgent);
+        cache.put(userAgent, idOf(result));
+        return result;
+    }
+
+    static UserAgent classify(CharSequence userAgent) {
+        if (userAgent == null) {
+            return classify(0);
+        }
+
+        int state = 0;
+        int mask = 0;
+        for (int i = 0; i < userAgent.length(); i++) {
+            state = next(state, userAgent.charAt(i));
+            mask |= OUTPUTS[state];
+        }
+        return classify(mask);
+    }
+
+    static UserAgent classify(ByteBuffer buffer, int start, int end) {
+        int state = 0;
+        int mask = 0;
+        for (int i = start; i < end; i++) {
+            state = next(state, (char) (buffer.get(i) & 0xFF));
+            mask |= OUTPUTS[state];
+        }
+        return classify(mask);
+    }
+
+    private static int next(int state, char c) {
+        if (c >= ALPHABET) {
+            return 0;
+        }
+        if (c >= 'A' && c <= 'Z') {
+            c += 'a' - 'A';
+        }
+        return TRANSITIONS[state * ALPHABET + c];
+    }
+
+    private static UserAgent classify(int mask) {
+        return INSTANCES[index(osIndex(mask), browserIndex(mask), (mask & BOT) != 0)];
+    }
+
+    private static int osIndex(int mask) {
+        if ((mask & WINDOWS) != 0) {
+            return 0;
+        } else if ((mask & MAC_OS) != 0) {
+            return 1;
+        } else if ((mask & LINUX) != 0) {
+            return 2;
+        } else if ((mask & ANDROID) != 0) {
+            return 3;
+        } else if ((mask & IOS) != 0) {
+            return 4;
+        } else {
+            return 5;
+        }
+    }
+
+    private static int browserIndex(int mask) {
+        if ((mask & EDGE) != 0) {
+            return 0;
+        } else if ((mask & FIREFOX) != 0) {
+            return 1;
+        } else if ((mask & CHROME) != 0 && (mask & CHROMIUM) == 0) {
+            return 2;
+        } else if ((mask & OPERA) != 0) {
+            return 3;
+        } else if ((mask & SAFARI) != 0 && (mask & CHROME) == 0) {
+            return 4;
+        } else {
+            return 5;
+        }
+    }
+
+    static int idOf(UserAgent userAgent) {
+        return index(userAgent.getOsOrdinal(), userAgent.getBrowserOrdinal(), userAgent.isBot());
+    }
+
+    static UserAgent byId(int id) {
+        return INSTANCES[id];
+    }
+
+    static int idCount() {
+        return INSTANCES.length;
+    }
+
+    private static int index(int os, int browser, boolean bot) {
+        return (os * BROWSERS.length + browser) * 2 + (bot ? 1 : 0);
+    }
+}
@@ -0,0 +1,88 @@
+package org.example;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+public final class WindowSnapshot {
+    private final TimeWindow window;
+    private final long endSecond;
+    private final long requests;
+    private final long errors;
+    private final long bytes;
+    private final long peakSecond;
+    private final int[] sortedRequestsPerSecond;
+
+    WindowSnapshot(TimeWindow window, long endSecond, long requests, long errors, long bytes,
+                   long peakSecond, int[] sortedRequestsPerSecond) {
+        this.window = window;
+        this.endSecond = endSecond;
+        this.requests = requests;
+        this.errors = errors;
+        this.bytes = bytes;
+        this.peakSecond = peakSecond;
+        this.sortedRequestsPerSecond = sortedRequestsPerSecond;
+    }
+
+    public TimeWindow getWindow() {
+        return window;
+    }
+
+    public boolean isEmpty() {
+        return sortedRequestsPerSecond.length == 0;
+    }
+
+    public LocalDateTime getEnd() {
+        return isEmpty() ? null : LocalDateTime.ofEpochSecond(endSecond, 0, ZoneOffset.UTC);
+    }
+
+    public int getCoveredSeconds() {
+        return sortedRequestsPerSecond.length;
+    }
+
+    public long getRequestCount() {
+        return requests;
+    }
+
+    public long getErrorCount() {
+        return errors;
+    }
+
+    public long getByteCount() {
+        return bytes;
+    }
+
+    public double getRequestsPerSecond() {
+        return rate(requests);
+    }
+
+    public double getErrorsPerSecond() {
+        return rate(errors);
+    }
+
+    public double getBytesPerSecond() {
+        return rate(bytes);
+    }
+
+    public int getPeakRequestsPerSecond() {
+        return isEmpty() ? 0 : sortedRequestsPerSecond[sortedRequestsPerSecond.length - 1];
+    }
+
+    public LocalDateTime getPeakTime() {
+        return isEmpty() ? null : LocalDateTime.ofEpochSecond(peakSecond, 0, ZoneOffset.UTC);
+    }
+
+    public int getRequestsPerSecondPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Перцентиль должен быть в диапазоне [0, 100]: " + percentile);
+        }
+        if (isEmpty()) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * sortedRequestsPerSecond.length);
+        return sortedRequestsPerSecond[Math.max(0, rank - 1)];
+    }
+
+    private double rate(long value) {
+        return isEmpty() ? 0.0 : (double) value / sortedRequestsPerSecond.length;
+    }
+}
@@ -0,0 +1,122 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SyslogListenerTest {
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @Test
+    void receivesUdpAndBothTcpFramings() throws Exception {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        SyslogListener listener = new SyslogListener(new InetSocketAddress(loopback, 0), LogFormat.COMBINED,
+                Statistics::new, new SyslogSettings(2, 4, 1 << 16));
+        AtomicReference<Statistics> last = new AtomicReference<>();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> running = executor.submit(() -> {
+            listener.run(Duration.ofHours(1), last::set);
+            return null;
+        });
+
+        try {
+            try (DatagramSocket socket = new DatagramSocket()) {
+                byte[] message = bytes("<34>Oct 11 22:14:15 web01 nginx: " + line("10.0.0.1", "/udp"));
+                socket.send(new DatagramPacket(message, message.length, loopback, listener.getPort()));
+            }
+
+            try (Socket socket = new Socket(loopback, listener.getPort())) {
+                byte[] message = bytes("<165>1 2022-09-20T02:00:00.003Z web01 nginx - ID47 "
+                        + "[exampleSDID@32473 iut=\"3\" eventSource=\"App\"] " + line("10.0.0.1", "/octet"));
+                OutputStream out = socket.getOutputStream();
+                out.write(bytes(message.length + " "));
+                out.write(message);
+                out.flush();
+            }
+
+            try (Socket socket = new Socket(loopback, listener.getPort())) {
+                socket.setTcpNoDelay(true);
+                OutputStream out = socket.getOutputStream();
+                out.write(bytes("<13>Sep 20 02:00:01 web01 nginx: " + line("10.0.0.1", "/first") + "\n"));
+                byte[] split = bytes(line("10.0.0.2", "/split") + "\n");
+                out.write(split, 0, split.length / 2);
+                out.flush();
+                Thread.sleep(200);
+                out.write(split, split.length / 2, split.length - split.length / 2);
+                char[] oversized = new char[MappedLogReader.MAX_LINE_LENGTH * 2];
+                Arrays.fill(oversized, 'x');
+                out.write(bytes(new String(oversized) + "\n"));
+                out.flush();
+            }
+
+            long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            while ((listener.getReceivedMessages() < 4 || listener.getOversizedMessages() < 1)
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+        } finally {
+            listener.close();
+            running.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            executor.shutdown();
+        }
+
+        assertEquals(4, listener.getReceivedMessages());
+        assertEquals(0, listener.getDroppedMessages());
+        assertEquals(1, listener.getOversizedMessages());
+        assertEquals(2, listener.getAcceptedConnections());
+
+        Statistics snapshot = last.get();
+        assertEquals(4, snapshot.getEntryCount());
+        assertEquals(new HashSet<>(Arrays.asList("/udp", "/octet", "/first", "/split")), snapshot.getExistingPages());
+        assertEquals("10.0.0.1", snapshot.getMostActiveUserIP());
+        assertEquals(2, snapshot.getUniqueRealUsersCount());
+    }
+
+    @Test
+    void stripsSyslogHeaders() {
+        String line = line("10.0.0.1", "/");
+        String[] framed = {
+                "<165>1 2022-09-20T02:00:00.003Z web01 nginx 42 ID47 [id@1 a=\"]\\\"\"][id@2 b=\"c\"] " + line,
+                "<165>1 2022-09-20T02:00:00Z web01 nginx - - - " + line,
+                "<34>Oct 11 22:14:15 web01 nginx: " + line,
+                "<34>Oct  1 02:04:05 web01 nginx[123]: " + line,
+                "<34>nginx: " + line,
+                line,
+        };
+        for (String text : framed) {
+            byte[] data = bytes(text);
+            int start = SyslogFrame.messageStart(data, 0, data.length);
+            assertEquals(line, new String(data, start, data.length - start, StandardCharsets.UTF_8), text);
+        }
+
+        byte[] bom = bytes("<165>1 - - - - - - \uFEFF" + line);
+        int start = SyslogFrame.messageStart(bom, 0, bom.length);
+        assertEquals(line, new String(bom, start, bom.length - start, StandardCharsets.UTF_8));
+        assertEquals(0, SyslogFrame.messageStart(bytes("<999999>x"), 0, 9));
+    }
+
+    private static String line(String ip, String path) {
+        return ip + " - - [20/Sep/2022:02:00:00 +0000] \"GET " + path + " HTTP/1.1\" 200 512 \"-\" "
+                + "\"Mozilla/5.0 (X11; Linux x86_64) Firefox/118.0\"";
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,204 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimeIndexTest {
+    private static final long START = 1663700400L;
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("dd/MMM/yyyy:HH:mm:ss", Locale.ENGLISH);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void spanCoversEveryRecordInRange() throws IOException {
+        Path log = directory.resolve("access.log");
+        Files.write(log, lines(START, 3, 2000));
+
+        TimeIndex index = TimeIndex.update(log.toFile(), LogFormat.COMBINED);
+
+        assertTrue(Files.isRegularFile(TimeIndex.indexPath(log)));
+        assertEquals(Files.size(log), index.getIndexedSize());
+        assertTrue(index.getBlockCount() > 1);
+        long size = Files.size(log);
+        long[][] ranges = {{START + 600, START + 1200}, {START, START + 1}, {START + 5997, START + 6000}, {Long.MIN_VALUE, Long.MAX_VALUE}};
+        for (long[] range : ranges) {
+            long[] span = index.span(range[0], range[1], size);
+            assertCovers(log, span, range[0], range[1]);
+        }
+        long[] narrow = index.span(START + 600, START + 1200, size);
+        assertTrue(narrow[1] - narrow[0] < size / 4);
+    }
+
+    @Test
+    void extendsIncrementallyAndMatchesFreshBuild() throws IOException {
+        Path log = directory.resolve("access.log");
+        Files.write(log, lines(START, 3, 1000));
+        int blocks = TimeIndex.update(log.toFile(), LogFormat.COMBINED).getBlockCount();
+
+        Files.write(log, lines(START + 3000, 3, 1000), StandardOpenOption.APPEND);
+        TimeIndex extended = TimeIndex.update(log.toFile(), LogFormat.COMBINED);
+        byte[] incremental = Files.readAllBytes(TimeIndex.indexPath(log));
+
+        assertTrue(extended.getBlockCount() > blocks);
+        assertEquals(Files.size(log), extended.getIndexedSize());
+        assertCovers(log, extended.span(START + 2900, START + 3100, Files.size(log)), START + 2900, START + 3100);
+
+        Files.delete(TimeIndex.indexPath(log));
+        TimeIndex.update(log.toFile(), LogFormat.COMBINED);
+        assertArrayEquals(Files.readAllBytes(TimeIndex.indexPath(log)), incremental);
+    }
+
+    @Test
+    void leavesPartialLastLineUnindexed() throws IOException {
+        Path log = directory.resolve("access.log");
+        byte[] complete = lines(START, 3, 100);
+        byte[] partial = line(START + 300).getBytes(StandardCharsets.UTF_8);
+        Files.write(log, concat(complete, Arrays.copyOf(partial, 20)));
+
+        assertEquals(complete.length, TimeIndex.update(log.toFile(), LogFormat.COMBINED).getIndexedSize());
+
+        Files.write(log, concat(complete, partial));
+        TimeIndex unterminated = TimeIndex.update(log.toFile(), LogFormat.COMBINED);
+        assertEquals(complete.length, unterminated.getIndexedSize());
+        assertCovers(log, unterminated.span(START + 300, START + 301, Files.size(log)), START + 300, START + 301);
+
+        Files.write(log, new byte[]{'\n'}, StandardOpenOption.APPEND);
+        TimeIndex index = TimeIndex.update(log.toFile(), LogFormat.COMBINED);
+        assertEquals(Files.size(log), index.getIndexedSize());
+        assertCovers(log, index.span(START + 300, START + 301, Files.size(log)), START + 300, START + 301);
+    }
+
+    @Test
+    void rebuildsWhenFileIsReplaced() throws IOException {
+        Path log = directory.resolve("access.log");
+        Files.write(log, lines(START, 3, 1000));
+        TimeIndex.update(log.toFile(), LogFormat.COMBINED);
+
+        long replaced = START + 86400;
+        Files.write(log, lines(replaced, 3, 1500));
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.READ)) {
+            TimeIndex index = TimeIndex.open(log.toFile(), channel, LogFormat.COMBINED);
+            long size = channel.size();
+            assertEquals(size, index.getIndexedSize());
+            assertCovers(log, index.span(replaced + 1200, replaced + 1800, size), replaced + 1200, replaced + 1800);
+            long[] old = index.span(START, START + 3000, size);
+            assertEquals(old[0], old[1]);
+        }
+    }
+
+    @Test
+    void returnsEmptySpanForGap() throws IOException {
+        Path log = directory.resolve("access.log");
+        Files.write(log, concat(lines(START, 3, 200), lines(START + 3600, 3, 200)));
+        TimeIndex index = TimeIndex.update(log.toFile(), LogFormat.COMBINED);
+        long size = Files.size(log);
+
+        long[] gap = index.span(START + 1200, START + 1800, size);
+        assertEquals(gap[0], gap[1]);
+        long[] after = index.span(START + 100000, START + 100001, size);
+        assertEquals(after[0], after[1]);
+        assertCovers(log, index.span(START + 500, START + 3700, size), START + 500, START + 3700);
+    }
+
+    @Test
+    void skipsBlocksWithoutValidTimestamps() throws IOException {
+        Path log = directory.resolve("access.log");
+        StringBuilder garbage = new StringBuilder();
+        while (garbage.length() < (5 << 20)) {
+            garbage.append("this line has no timestamp at all\n");
+        }
+        Files.write(log, concat(concat(lines(START, 3, 100), garbage.toString().getBytes(StandardCharsets.US_ASCII)),
+                lines(START + 600, 3, 100)));
+
+        TimeIndex index = TimeIndex.update(log.toFile(), LogFormat.COMBINED);
+        long size = Files.size(log);
+
+        assertTrue(index.getBlockCount() >= 3);
+        assertCovers(log, index.span(START, START + 60, size), START, START + 60);
+        long[] late = index.span(START + 650, START + 700, size);
+        assertCovers(log, late, START + 650, START + 700);
+        assertTrue(late[1] - late[0] < 1 << 20);
+    }
+
+    @Test
+    void searchFallbackFindsRangeInSortedFile() throws IOException {
+        Path log = directory.resolve("access.log");
+        Files.write(log, lines(START, 3, 2000));
+
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.READ)) {
+            long size = channel.size();
+            assertFalse(Files.exists(TimeIndex.indexPath(log)));
+
+            long[] span = TimeIndex.search(channel, LogFormat.COMBINED, START + 3000, START + 3600);
+            assertCovers(log, span, START + 3000, START + 3600);
+            assertTrue(span[1] - span[0] < size / 2);
+
+            long[] beyond = TimeIndex.search(channel, LogFormat.COMBINED, START + 100000, START + 100001);
+            assertEquals(size, beyond[0]);
+            assertEquals(size, beyond[1]);
+
+            long[] open = TimeIndex.search(channel, LogFormat.COMBINED, Long.MIN_VALUE, START + 30);
+            assertEquals(0, open[0]);
+            assertCovers(log, open, Long.MIN_VALUE, START + 30);
+        }
+    }
+
+    private static void assertCovers(Path log, long[] span, long from, long to) throws IOException {
+        byte[] data = Files.readAllBytes(log);
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        LogRecordView record = new LogRecordView(LogFormat.COMBINED);
+        int matched = 0;
+        int lineStart = 0;
+        for (int i = 0; i <= data.length; i++) {
+            if (i == data.length || data[i] == '\n') {
+                if (i > lineStart && record.parse(buffer, lineStart, i)
+                        && record.epochSecond >= from && record.epochSecond < to) {
+                    assertTrue(lineStart >= span[0] && i <= span[1],
+                            "Строка по смещению " + lineStart + " вне участка [" + span[0] + ", " + span[1] + ")");
+                    matched++;
+                }
+                lineStart = i + 1;
+            }
+        }
+        assertTrue(matched > 0);
+    }
+
+    private static byte[] lines(long first, int step, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(line(first + (long) i * step)).append('\n');
+        }
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String line(long second) {
+        String time = LocalDateTime.ofEpochSecond(second, 0, ZoneOffset.UTC).format(TIME);
+        return "192.168.1." + (second % 200) + " - - [" + time + " +0000] \"GET /page/" + (second % 37)
+                + " HTTP/1.1\" 200 512 \"-\" \"Mozilla/5.0 (X11; Linux x86_64) Firefox/118.0\"";
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+}